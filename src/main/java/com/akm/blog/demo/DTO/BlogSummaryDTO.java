@@ -0,0 +1,66 @@
+package com.akm.blog.demo.DTO;
+
+import java.io.Serializable;
+import java.util.Calendar;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/*
+ * Read-only blog listing row, filled directly by a JPQL constructor
+ * expression so no managed Blog entity is created for it.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BlogSummaryDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@JsonProperty("id")
+	private final Long id;
+
+	@JsonProperty("name")
+	private final String name;
+
+	@JsonProperty("description")
+	private final String description;
+
+	@JsonProperty("created_at")
+	private final Calendar createdAt;
+
+	@JsonProperty("version")
+	private final Long version;
+
+	public BlogSummaryDTO(Long id, String name, String description, Calendar createdAt, Long version) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.createdAt = createdAt;
+		this.version = version;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public Calendar getCreatedAt() {
+		return createdAt;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		return "BlogSummaryDTO [id=" + id + ", name=" + name + ", description=" + description + ", version="
+				+ version + "]";
+	}
+}
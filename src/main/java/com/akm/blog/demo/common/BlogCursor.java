@@ -0,0 +1,51 @@
+package com.akm.blog.demo.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Calendar;
+
+/*
+ * Opaque keyset position in a (created_at desc, id desc) listing: the sort
+ * key of the last row already returned.
+ */
+public final class BlogCursor {
+
+	private final long createdAtMillis;
+
+	private final long id;
+
+	public BlogCursor(Calendar createdAt, Long id) {
+		this.createdAtMillis = createdAt.getTimeInMillis();
+		this.id = id;
+	}
+
+	private BlogCursor(long createdAtMillis, long id) {
+		this.createdAtMillis = createdAtMillis;
+		this.id = id;
+	}
+
+	public Calendar getCreatedAt() {
+		Calendar createdAt = Calendar.getInstance();
+		createdAt.setTimeInMillis(createdAtMillis);
+		return createdAt;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String encode() {
+		String raw = createdAtMillis + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	public static BlogCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+			int separator = raw.indexOf(':');
+			return new BlogCursor(Long.parseLong(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+		} catch (RuntimeException e) {
+			throw new InvalidCursorException("Invalid cursor: " + token);
+		}
+	}
+}
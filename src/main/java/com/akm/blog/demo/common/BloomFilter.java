@@ -0,0 +1,74 @@
+package com.akm.blog.demo.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Thread-safe Bloom filter over strings. mightContain() never returns false
+ * for an added value; it returns true for an absent value with roughly the
+ * false-positive probability the filter was sized for.
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray bits;
+
+	private final long bitCount;
+
+	private final int hashCount;
+
+	public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+		long n = Math.max(1, expectedInsertions);
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+		this.bitCount = Math.max(64, m);
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+		this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+	}
+
+	public void add(String value) {
+		long hash64 = hash(value);
+		int h1 = (int) hash64;
+		int h2 = (int) (hash64 >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = indexOf(h1 + i * h2);
+			int word = (int) (index >>> 6);
+			long mask = 1L << index;
+			long current;
+			do {
+				current = bits.get(word);
+				if ((current & mask) != 0)
+					break;
+			} while (!bits.compareAndSet(word, current, current | mask));
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long hash64 = hash(value);
+		int h1 = (int) hash64;
+		int h2 = (int) (hash64 >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = indexOf(h1 + i * h2);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	private long indexOf(int combinedHash) {
+		return (combinedHash & Integer.MAX_VALUE) % bitCount;
+	}
+
+	// 64-bit FNV-1a followed by a murmur3 finalizer for better bit dispersion
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb93fe53e2e3fL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -26,6 +26,10 @@ public class CommonResponse implements Serializable {
     @JsonProperty("response_data")
     private ResponseData responseData;
 
+    // Sent as the ETag header by the controller, never part of the body
+    @JsonIgnore
+    private String entityTag;
+
     public void setResponseData(String name, Object value) {
         if(responseData == null)
             responseData = new ResponseData();
@@ -76,4 +80,12 @@ public class CommonResponse implements Serializable {
 	public void setErrorMsg(String errorMsg) {
 		this.errorMsg = errorMsg;
 	}
+
+	public String getEntityTag() {
+		return entityTag;
+	}
+
+	public void setEntityTag(String entityTag) {
+		this.entityTag = entityTag;
+	}
 }
@@ -0,0 +1,73 @@
+package com.akm.blog.demo.common;
+
+import java.util.List;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+
+/*
+ * Entity tags for blog reads and writes. A single blog's tag is its
+ * version; a page's tag is a hash over the ids and versions it contains,
+ * so it changes whenever a blog on the page is added, removed or edited.
+ */
+public final class ETags {
+
+	private static final String WEAK_PREFIX = "W/";
+
+	private ETags() {
+	}
+
+	public static String forVersion(Long version) {
+		return "\"" + version + "\"";
+	}
+
+	public static String forBlogs(List<BlogSummaryDTO> blogs, String nextCursor) {
+		long hash = 1125899906842597L;
+		for (BlogSummaryDTO blog : blogs) {
+			hash = 31 * hash + (blog.getId() == null ? 0 : blog.getId());
+			hash = 31 * hash + (blog.getVersion() == null ? 0 : blog.getVersion());
+		}
+		hash = 31 * hash + blogs.size();
+		if (nextCursor != null)
+			hash = 31 * hash + nextCursor.hashCode();
+		return WEAK_PREFIX + "\"" + Long.toHexString(hash) + "\"";
+	}
+
+	/*
+	 * Weak comparison against an If-None-Match header, which may hold a
+	 * comma separated list of tags or "*".
+	 */
+	public static boolean matches(String header, String eTag) {
+		if (header == null || eTag == null)
+			return false;
+		String expected = strip(eTag);
+		for (String candidate : header.split(",")) {
+			String tag = candidate.trim();
+			if ("*".equals(tag) || strip(tag).equals(expected))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * The version an If-Match header asks for; null when there is no header
+	 * or it is "*", i.e. no version check is wanted. A header that names no
+	 * version is a malformed request (400), not a failed precondition.
+	 */
+	public static Long parseVersion(String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().isEmpty() || "*".equals(ifMatch.trim()))
+			return null;
+		try {
+			return Long.valueOf(strip(ifMatch.trim()));
+		} catch (NumberFormatException e) {
+			throw new InvalidETagException("If-Match does not name a blog version: " + ifMatch);
+		}
+	}
+
+	private static String strip(String tag) {
+		if (tag.startsWith(WEAK_PREFIX))
+			tag = tag.substring(WEAK_PREFIX.length());
+		if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\""))
+			tag = tag.substring(1, tag.length() - 1);
+		return tag;
+	}
+}
@@ -0,0 +1,128 @@
+package com.akm.blog.demo.common;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Size-bounded concurrent cache where every entry carries its own expiry
+ * instant. Expired entries are never returned: they are dropped on read,
+ * and swept in bulk once the cache reaches its size limit.
+ */
+public class ExpiringCache<K, V> {
+
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	private final int maxSize;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	public ExpiringCache(int maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize must be positive");
+		this.maxSize = maxSize;
+	}
+
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		if (entry.isExpired(System.currentTimeMillis())) {
+			if (entries.remove(key, entry))
+				evictions.increment();
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.value;
+	}
+
+	public void put(K key, V value, long expiresAtMillis) {
+		if (expiresAtMillis <= System.currentTimeMillis())
+			return;
+		if (entries.size() >= maxSize && !entries.containsKey(key))
+			makeRoom();
+		entries.put(key, new Entry<>(value, expiresAtMillis));
+	}
+
+	public void remove(K key) {
+		entries.remove(key);
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+	public double hitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	public void purgeExpired() {
+		long now = System.currentTimeMillis();
+		Iterator<Entry<V>> it = entries.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().isExpired(now)) {
+				it.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	/*
+	 * Sweeps expired entries first; if the cache is still full of live
+	 * entries, drops an arbitrary tenth of them so the following puts do not
+	 * pay for another full sweep.
+	 */
+	private synchronized void makeRoom() {
+		if (entries.size() < maxSize)
+			return;
+		purgeExpired();
+		int toDrop = entries.size() - maxSize + Math.max(1, maxSize / 10);
+		Iterator<K> it = entries.keySet().iterator();
+		while (toDrop-- > 0 && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions.increment();
+		}
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private final long expiresAtMillis;
+
+		Entry(V value, long expiresAtMillis) {
+			this.value = value;
+			this.expiresAtMillis = expiresAtMillis;
+		}
+
+		boolean isExpired(long now) {
+			return now >= expiresAtMillis;
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.akm.blog.demo.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Cursor must be a next_cursor from a previous page")
+public class InvalidCursorException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCursorException(String message) {
+		super(message);
+	}
+}
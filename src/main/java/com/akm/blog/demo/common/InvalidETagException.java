@@ -0,0 +1,14 @@
+package com.akm.blog.demo.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "If-Match must be * or a blog version ETag")
+public class InvalidETagException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidETagException(String message) {
+		super(message);
+	}
+}
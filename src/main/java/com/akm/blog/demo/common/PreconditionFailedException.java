@@ -0,0 +1,14 @@
+package com.akm.blog.demo.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED, reason = "Blog was modified, reload it and retry")
+public class PreconditionFailedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PreconditionFailedException(String message) {
+		super(message);
+	}
+}
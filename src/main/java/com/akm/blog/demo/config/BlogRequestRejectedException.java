@@ -0,0 +1,14 @@
+package com.akm.blog.demo.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Blog service is busy, retry later")
+public class BlogRequestRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BlogRequestRejectedException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,41 @@
+package com.akm.blog.demo.config;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.akm.blog.demo.repository.BlogRepository;
+
+/*
+ * Moves the blog_seq table past the highest existing blog id at startup.
+ * ddl-auto creates blog_seq starting at 1, which on a database that already
+ * has (AUTO_INCREMENT era) blog rows would hand out ids that are taken.
+ * Runs while the context is refreshing, before the web server accepts
+ * requests, and only ever raises the value, so it is safe on every start
+ * and with several instances.
+ */
+@Component
+public class BlogSequenceSeeder {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlogSequenceSeeder.class);
+
+	private static final String SEED_BLOG_SEQ = "update blog_seq set next_val = (select coalesce(max(id), 0) + 1 from blog)"
+			+ " where next_val <= (select coalesce(max(id), 0) from blog)";
+
+	// Injected so that the schema (blog and blog_seq) exists before seeding
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PostConstruct
+	public void seed() {
+		if (jdbcTemplate.update(SEED_BLOG_SEQ) > 0)
+			LOGGER.info("Moved blog_seq past the existing blog ids");
+	}
+}
@@ -0,0 +1,137 @@
+package com.akm.blog.demo.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Runs blog reads and writes off the servlet threads. The pool has a few
+ * threads fewer than the connection pool has connections, so a slow
+ * database backs up this queue instead of every Tomcat thread, while the
+ * synchronous endpoints and Hibernate's blog_seq id allocation (which
+ * borrows a second connection) always find one free. When the queue is full
+ * or a task is still waiting in it after the timeout, the request gets a 503
+ * right away; a task that has started is never abandoned, since its write
+ * may still commit.
+ */
+@Component
+public class BlogTaskExecutor {
+
+	private static final int QUEUED = 0;
+	private static final int RUNNING = 1;
+	private static final int EXPIRED = 2;
+
+	@Value("${grokonez.app.blogTasks.threads:0}")
+	private int threads;
+
+	@Value("${spring.datasource.hikari.maximum-pool-size:10}")
+	private int connectionPoolSize;
+
+	@Value("${grokonez.app.blogTasks.reservedConnections:2}")
+	private int reservedConnections;
+
+	@Value("${grokonez.app.blogTasks.queueCapacity:100}")
+	private int queueCapacity;
+
+	@Value("${grokonez.app.blogTasks.queueTimeoutMillis:5000}")
+	private long queueTimeoutMillis;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private ThreadPoolExecutor executor;
+
+	private ScheduledThreadPoolExecutor timeouts;
+
+	private Timer taskTimer;
+
+	private Counter rejectedCounter;
+
+	private Counter timeoutCounter;
+
+	@PostConstruct
+	public void init() {
+		int poolSize = threads > 0 ? threads : Math.max(1, connectionPoolSize - reservedConnections);
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "blog-task-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "blog-task-timeouts");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timeouts.setRemoveOnCancelPolicy(true);
+
+		taskTimer = Timer.builder("blog.task.latency").register(meterRegistry);
+		rejectedCounter = Counter.builder("blog.task.rejected").register(meterRegistry);
+		timeoutCounter = Counter.builder("blog.task.timeouts").register(meterRegistry);
+		Gauge.builder("blog.task.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+		Gauge.builder("blog.task.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		timeouts.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Queues the task with the caller's SecurityContext and returns at once;
+	 * the servlet thread is released until the task completes. Exceptions
+	 * thrown by the task are resolved like those of a synchronous handler.
+	 */
+	public <T> DeferredResult<T> submit(Callable<T> task) {
+		// No async timeout of its own: once started, the task's result is always sent
+		DeferredResult<T> result = new DeferredResult<>(0L);
+		AtomicInteger state = new AtomicInteger(QUEUED);
+		Future<?> future;
+		try {
+			future = executor.submit(new DelegatingSecurityContextRunnable(() -> {
+				if (!state.compareAndSet(QUEUED, RUNNING))
+					return;
+				try {
+					result.setResult(taskTimer.recordCallable(task));
+				} catch (Exception e) {
+					result.setErrorResult(e);
+				}
+			}));
+		} catch (RejectedExecutionException e) {
+			rejectedCounter.increment();
+			throw new BlogRequestRejectedException("Blog request queue is full");
+		}
+
+		ScheduledFuture<?> timeout = timeouts.schedule(() -> {
+			if (!state.compareAndSet(QUEUED, EXPIRED))
+				return;
+			future.cancel(false);
+			timeoutCounter.increment();
+			result.setErrorResult(new BlogRequestRejectedException("Blog request timed out in the queue"));
+		}, queueTimeoutMillis, TimeUnit.MILLISECONDS);
+		result.onCompletion(() -> timeout.cancel(false));
+		return result;
+	}
+}
@@ -0,0 +1,75 @@
+package com.akm.blog.demo.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.akm.blog.demo.common.CommonResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Writes CommonResponse envelopes straight to the response stream with a
+ * writer built once at startup, instead of serializing them to a String
+ * first and having Spring copy that String out again. One instance per
+ * wire format (JSON, Smile, CBOR), all with default ObjectMapper settings
+ * so the three carry the same fields and values (dates as epoch millis).
+ */
+public class CommonResponseMessageConverter extends AbstractHttpMessageConverter<CommonResponse> {
+
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+	public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+	public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+	public static final MediaType APPLICATION_CBOR = MediaType.valueOf(APPLICATION_CBOR_VALUE);
+
+	private final ObjectWriter writer;
+
+	public CommonResponseMessageConverter() {
+		this(new ObjectMapper(), MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+	}
+
+	private CommonResponseMessageConverter(ObjectMapper mapper, MediaType... supportedMediaTypes) {
+		super(supportedMediaTypes);
+		this.writer = mapper.writerFor(CommonResponse.class)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	public static CommonResponseMessageConverter smile() {
+		return new CommonResponseMessageConverter(new ObjectMapper(new SmileFactory()), APPLICATION_SMILE);
+	}
+
+	public static CommonResponseMessageConverter cbor() {
+		return new CommonResponseMessageConverter(new ObjectMapper(new CBORFactory()), APPLICATION_CBOR);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return CommonResponse.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	protected boolean canRead(MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected CommonResponse readInternal(Class<? extends CommonResponse> clazz, HttpInputMessage inputMessage)
+			throws IOException {
+		throw new HttpMessageNotReadableException("CommonResponse is a response-only type");
+	}
+
+	@Override
+	protected void writeInternal(CommonResponse response, HttpOutputMessage outputMessage) throws IOException {
+		writer.writeValue(outputMessage.getBody(), response);
+	}
+}
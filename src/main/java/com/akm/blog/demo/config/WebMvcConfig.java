@@ -0,0 +1,40 @@
+package com.akm.blog.demo.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.akm.blog.demo.security.RoleCheckInterceptor;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new RoleCheckInterceptor());
+	}
+
+	/*
+	 * JSON stays the default; clients sending Accept: application/x-jackson-smile
+	 * or application/cbor get the same objects in that binary format.
+	 */
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		// Ahead of the generic Jackson converters so they win for CommonResponse
+		converters.add(0, new CommonResponseMessageConverter());
+		converters.add(1, CommonResponseMessageConverter.smile());
+		converters.add(2, CommonResponseMessageConverter.cbor());
+
+		// Everything else (JwtResponse, request bodies, ...)
+		if (converters.stream().noneMatch(MappingJackson2SmileHttpMessageConverter.class::isInstance))
+			converters.add(new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.smile().build()));
+		if (converters.stream().noneMatch(MappingJackson2CborHttpMessageConverter.class::isInstance))
+			converters.add(new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build()));
+	}
+}
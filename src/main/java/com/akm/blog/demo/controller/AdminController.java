@@ -0,0 +1,56 @@
+package com.akm.blog.demo.controller;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.config.CommonResponseMessageConverter;
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.security.RequiresRole;
+import com.akm.blog.demo.service.UserImportService;
+
+@RestController
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RequestMapping("/api/admin")
+public class AdminController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdminController.class);
+
+	private static final String TEXT_CSV = "text/csv";
+	private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+	@Autowired
+	private UserImportService userImportService;
+
+	/*
+	 * Bulk user import, body streamed as CSV (username,password) or NDJSON
+	 */
+	@PostMapping(value = "/users/import", consumes = { TEXT_CSV, APPLICATION_NDJSON },
+			produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_ADMIN)
+	public ResponseEntity<CommonResponse> importUsers(HttpServletRequest request) throws Exception {
+		LOGGER.info("Starting importUsers() from AdminController");
+		ResponseEntity<CommonResponse> responseEntity = null;
+		boolean ndjson = MediaType.parseMediaType(request.getContentType())
+				.isCompatibleWith(MediaType.parseMediaType(APPLICATION_NDJSON));
+		CommonResponse commonResponse = userImportService.importUsers(request.getInputStream(), ndjson);
+		if(commonResponse != null){
+			responseEntity = ResponseEntity.ok(commonResponse);
+		} else
+			responseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		LOGGER.info("Exiting importUsers() from AdminController");
+		return responseEntity;
+	}
+
+}
@@ -3,33 +3,44 @@ package com.akm.blog.demo.controller;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.akm.blog.demo.message.request.LoginForm;
+import com.akm.blog.demo.message.request.RefreshTokenForm;
 import com.akm.blog.demo.message.request.SignUpForm;
 import com.akm.blog.demo.message.response.JwtResponse;
 import com.akm.blog.demo.message.response.ResponseMessage;
 import com.akm.blog.demo.model.Role;
 import com.akm.blog.demo.model.RoleName;
 import com.akm.blog.demo.model.User;
-import com.akm.blog.demo.repository.RoleRepository;
 import com.akm.blog.demo.repository.UserRepository;
+import com.akm.blog.demo.security.LoginThrottle;
 import com.akm.blog.demo.security.jwt.JwtProvider;
+import com.akm.blog.demo.security.jwt.TokenRevocationService;
+import com.akm.blog.demo.security.services.PasswordRehashService;
+import com.akm.blog.demo.security.services.RoleCache;
+import com.akm.blog.demo.security.services.UserDetailsServiceImpl;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+import io.jsonwebtoken.Claims;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -43,7 +54,7 @@ public class AuthController {
 	UserRepository userRepository;
 
 	@Autowired
-	RoleRepository roleRepository;
+	RoleCache roleCache;
 
 	@Autowired
 	PasswordEncoder encoder;
@@ -51,39 +62,102 @@ public class AuthController {
 	@Autowired
 	JwtProvider jwtProvider;
 
-	@PostMapping("/signin")
-	public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginForm loginRequest) {
+	@Autowired
+	PasswordRehashService passwordRehashService;
+
+	@Autowired
+	TokenRevocationService revocationService;
+
+	@Autowired
+	UserDetailsServiceImpl userDetailsService;
+
+	@Autowired
+	LoginThrottle loginThrottle;
 
-		Authentication authentication = authenticationManager.authenticate(
-				new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+	@PostMapping("/signin")
+	public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginForm loginRequest, HttpServletRequest request) {
+
+		loginThrottle.check(loginRequest.getUsername(), request.getRemoteAddr());
+
+		Authentication authentication;
+		try {
+			authentication = authenticationManager.authenticate(
+					new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+		} catch (BadCredentialsException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			loginThrottle.refund(loginRequest.getUsername());
+			throw e;
+		}
+		// Only wrong passwords count against the username
+		loginThrottle.refund(loginRequest.getUsername());
 
 		SecurityContextHolder.getContext().setAuthentication(authentication);
 
 		String jwt = jwtProvider.generateJwtToken(authentication);
-		UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+		UserPrinciple userDetails = (UserPrinciple) authentication.getPrincipal();
+		passwordRehashService.rehashIfOutdated(userDetails, loginRequest.getPassword());
+		String refreshToken = jwtProvider.generateRefreshToken(userDetails);
 
-		return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getUsername(), userDetails.getAuthorities()));
+		return ResponseEntity.ok(new JwtResponse(jwt, refreshToken, userDetails.getUsername(), userDetails.getAuthorities()));
 	}
 
-	@PostMapping("/signup")
-	public ResponseEntity<?> registerUser(@Valid @RequestBody SignUpForm signUpRequest) {
-		if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-			return new ResponseEntity<>(new ResponseMessage("Fail -> Username is already taken!"),
-					HttpStatus.BAD_REQUEST);
+	/*
+	 * Exchanges a refresh token for a new access/refresh pair. The presented
+	 * refresh token is revoked, so each one can be used only once.
+	 */
+	@PostMapping("/refresh")
+	public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenForm refreshRequest) {
+		Claims claims = jwtProvider.getValidClaims(refreshRequest.getRefreshToken());
+		if (claims == null || !jwtProvider.isRefreshToken(claims)
+				|| !revocationService.revoke(claims.getId(), claims.getExpiration())) {
+			return new ResponseEntity<>(new ResponseMessage("Fail -> Invalid refresh token!"),
+					HttpStatus.UNAUTHORIZED);
+		}
+
+		// Authorities are re-read here so that role changes reach the next access token
+		UserPrinciple userDetails = (UserPrinciple) userDetailsService.loadUserByUsername(claims.getSubject());
+		String jwt = jwtProvider.generateJwtToken(userDetails);
+		String refreshToken = jwtProvider.generateRefreshToken(userDetails);
+
+		return ResponseEntity.ok(new JwtResponse(jwt, refreshToken, userDetails.getUsername(), userDetails.getAuthorities()));
+	}
+
+	@PostMapping("/signout")
+	public ResponseEntity<?> signOut(@Valid @RequestBody RefreshTokenForm signOutRequest,
+			@RequestHeader(value = "Authorization", required = false) String authHeader) {
+		Claims refreshClaims = jwtProvider.getValidClaims(signOutRequest.getRefreshToken());
+		if (refreshClaims != null && jwtProvider.isRefreshToken(refreshClaims)) {
+			revocationService.revoke(refreshClaims.getId(), refreshClaims.getExpiration());
 		}
 
+		if (authHeader != null && authHeader.startsWith("Bearer ")) {
+			Claims accessClaims = jwtProvider.getValidClaims(authHeader.substring("Bearer ".length()));
+			if (accessClaims != null && accessClaims.getId() != null) {
+				revocationService.revoke(accessClaims.getId(), accessClaims.getExpiration());
+			}
+		}
+
+		return new ResponseEntity<>(new ResponseMessage("User signed out successfully!"), HttpStatus.OK);
+	}
+
+	@PostMapping("/signup")
+	public ResponseEntity<?> registerUser(@Valid @RequestBody SignUpForm signUpRequest) {
 		// Creating user's account
 		User user = new User(signUpRequest.getUsername(),
 				encoder.encode(signUpRequest.getPassword()), true, null, null);
 
 		Set<Role> roles = new HashSet<>();
-
-		Role adminRole = roleRepository.findByName(RoleName.ROLE_USER)
-				.orElseThrow(() -> new RuntimeException("Fail! -> Cause: User Role not find."));
-		roles.add(adminRole);
-
+		roles.add(roleCache.getRole(RoleName.ROLE_USER));
 		user.setRoles(roles);
-		userRepository.save(user);
+
+		// The unique constraint on users.username replaces a separate existence query
+		try {
+			userRepository.saveAndFlush(user);
+		} catch (DataIntegrityViolationException e) {
+			return new ResponseEntity<>(new ResponseMessage("Fail -> Username is already taken!"),
+					HttpStatus.BAD_REQUEST);
+		}
 
 		return new ResponseEntity<>(new ResponseMessage("User registered successfully!"), HttpStatus.OK);
 	}
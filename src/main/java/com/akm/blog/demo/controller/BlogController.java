@@ -1,27 +1,41 @@
 package com.akm.blog.demo.controller;
 
 import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.akm.blog.demo.DTO.BlogDTO;
 import com.akm.blog.demo.model.Role;
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.common.ETags;
+import com.akm.blog.demo.config.BlogTaskExecutor;
+import com.akm.blog.demo.config.CommonResponseMessageConverter;
+import com.akm.blog.demo.model.RoleName;
 import com.akm.blog.demo.repository.RoleRepository;
+import com.akm.blog.demo.security.RequiresRole;
+import com.akm.blog.demo.security.services.RoleCache;
 import com.akm.blog.demo.service.BlogService;
 
 @RestController
@@ -37,37 +51,90 @@ public class BlogController {
 	@Autowired
 	private RoleRepository roleRepository;
 
+	@Autowired
+	private RoleCache roleCache;
+
+	/*
+	 * createBlog, editBlog and getBlogs run on this pool so that waiting on
+	 * MySQL does not hold a servlet thread
+	 */
+	@Autowired
+	private BlogTaskExecutor blogTaskExecutor;
+
 	/*
 	 * Create Blog
 	 */
-	@PostMapping(value = "/createBlog", produces = MediaType.APPLICATION_JSON_VALUE)
-	@PreAuthorize("hasRole('USER')")
-	public ResponseEntity<?> createBlog(@RequestBody BlogDTO blogBean) throws Exception {
+	@PostMapping(value = "/createBlog", produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public DeferredResult<ResponseEntity<CommonResponse>> createBlog(@RequestBody BlogDTO blogBean) throws Exception {
 		LOGGER.info("Starting createBlog() from BlogController");
-		ResponseEntity<?> responseEntity = null;
-		String jsonString = blogService.createBlog(blogBean);
-		if(jsonString != null){
-			responseEntity = ResponseEntity.ok(jsonString);
+		DeferredResult<ResponseEntity<CommonResponse>> responseEntity = blogTaskExecutor.submit(() -> {
+			CommonResponse commonResponse = blogService.createBlog(blogBean);
+			if(commonResponse != null)
+				return ResponseEntity.ok(commonResponse);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		});
+		LOGGER.info("Exiting createBlog() from BlogController");
+		return responseEntity;
+	}
+
+
+	/*
+	 * Create Blogs in batch
+	 */
+	@PostMapping(value = "/createBlogs", produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public ResponseEntity<CommonResponse> createBlogs(@RequestBody List<BlogDTO> blogBeans) throws Exception {
+		LOGGER.info("Starting createBlogs() from BlogController");
+		ResponseEntity<CommonResponse> responseEntity = null;
+		CommonResponse commonResponse = blogService.createBlogs(blogBeans);
+		if(commonResponse != null){
+			responseEntity = ResponseEntity.ok(commonResponse);
 		} else
 			responseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-		LOGGER.info("Exiting createBlog() from BlogController");
+		LOGGER.info("Exiting createBlogs() from BlogController");
 		return responseEntity;
 	}
 
 
 	/*
-	 * Edit Blog
+	 * Delete Blogs in batch, body is the list of blog ids
 	 */
-	@PutMapping(value = "/editBlog/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-	@PreAuthorize("hasRole('USER')")
-	public ResponseEntity<?> editBlog(@RequestBody BlogDTO blogBean, @PathVariable("id") Long id) throws Exception {
-		LOGGER.info("Starting editBlog() from BlogController");
-		ResponseEntity<?> responseEntity = null;
-		String jsonString = blogService.editBlog(blogBean,id);
-		if(jsonString != null){
-			responseEntity = ResponseEntity.ok(jsonString);
+	@PostMapping(value = "/deleteBlogs", produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public ResponseEntity<CommonResponse> deleteBlogs(@RequestBody List<Long> ids) throws Exception {
+		LOGGER.info("Starting deleteBlogs() from BlogController");
+		ResponseEntity<CommonResponse> responseEntity = null;
+		CommonResponse commonResponse = blogService.deleteBlogs(ids);
+		if(commonResponse != null){
+			responseEntity = ResponseEntity.ok(commonResponse);
 		} else
 			responseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		LOGGER.info("Exiting deleteBlogs() from BlogController");
+		return responseEntity;
+	}
+
+
+	/*
+	 * Edit Blog, only the fields present in the body are changed
+	 */
+	@RequestMapping(value = "/editBlog/{id}", method = { RequestMethod.PUT, RequestMethod.PATCH }, produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public DeferredResult<ResponseEntity<CommonResponse>> editBlog(@RequestBody BlogDTO blogBean,
+			@PathVariable("id") Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws Exception {
+		LOGGER.info("Starting editBlog() from BlogController");
+		Long expectedVersion = ETags.parseVersion(ifMatch);
+		DeferredResult<ResponseEntity<CommonResponse>> responseEntity = blogTaskExecutor.submit(() -> {
+			CommonResponse commonResponse = blogService.editBlog(blogBean, id, expectedVersion);
+			if(commonResponse != null)
+				return withETag(commonResponse, null);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		});
 		LOGGER.info("Exiting editBlog() from BlogController");
 		return responseEntity;
 	}
@@ -76,21 +143,97 @@ public class BlogController {
 	/*
 	 * Read Blogs
 	 */
-	@GetMapping(value = "/getBlogs", produces = MediaType.APPLICATION_JSON_VALUE)
-	@PreAuthorize("hasRole('USER')")
-	public ResponseEntity<?> getBlogs(Pageable pageable) throws Exception {
+	@GetMapping(value = "/getBlogs", produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public DeferredResult<ResponseEntity<CommonResponse>> getBlogs(Pageable pageable,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
 		LOGGER.info("Starting getBlogs() from BlogController");
-		ResponseEntity<?> responseEntity = null;
-		String jsonString = blogService.getBlogs(pageable);
-		if(jsonString != null){
-			responseEntity = ResponseEntity.ok(jsonString);
+		DeferredResult<ResponseEntity<CommonResponse>> responseEntity = blogTaskExecutor.submit(() -> {
+			CommonResponse commonResponse = blogService.getBlogs(pageable);
+			if(commonResponse != null)
+				return withETag(commonResponse, ifNoneMatch);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		});
+		LOGGER.info("Exiting getBlogs() from BlogController");
+		return responseEntity;
+	}
+
+
+	/*
+	 * Read Blogs, keyset paginated: pass back next_cursor to get the next page
+	 */
+	@GetMapping(value = "/getBlogs/cursor", produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public ResponseEntity<CommonResponse> getBlogsByCursor(@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", required = false) Integer size,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
+		LOGGER.info("Starting getBlogsByCursor() from BlogController");
+		ResponseEntity<CommonResponse> responseEntity = null;
+		CommonResponse commonResponse = blogService.getBlogsByCursor(cursor, size);
+		if(commonResponse != null){
+			responseEntity = withETag(commonResponse, ifNoneMatch);
 		} else
 			responseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-		LOGGER.info("Exiting getBlogs() from BlogController");
+		LOGGER.info("Exiting getBlogsByCursor() from BlogController");
+		return responseEntity;
+	}
+
+
+	/*
+	 * Search Blogs of the logged in user, best matches first
+	 */
+	@GetMapping(value = "/searchBlogs", produces = { MediaType.APPLICATION_JSON_VALUE,
+			CommonResponseMessageConverter.APPLICATION_SMILE_VALUE, CommonResponseMessageConverter.APPLICATION_CBOR_VALUE })
+	@RequiresRole(RoleName.ROLE_USER)
+	public ResponseEntity<CommonResponse> searchBlogs(@RequestParam("q") String query,
+			@RequestParam(value = "size", required = false) Integer size) throws Exception {
+		LOGGER.info("Starting searchBlogs() from BlogController");
+		ResponseEntity<CommonResponse> responseEntity = null;
+		CommonResponse commonResponse = blogService.searchBlogs(query, size);
+		if(commonResponse != null){
+			responseEntity = ResponseEntity.ok(commonResponse);
+		} else
+			responseEntity = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		LOGGER.info("Exiting searchBlogs() from BlogController");
 		return responseEntity;
 	}
 
 
+	/*
+	 * Export all Blogs of the logged in user as NDJSON, streamed
+	 */
+	@GetMapping(value = "/blogs/export", produces = "application/x-ndjson")
+	@RequiresRole(RoleName.ROLE_USER)
+	public void exportBlogs(HttpServletResponse response) throws Exception {
+		LOGGER.info("Starting exportBlogs() from BlogController");
+		response.setContentType("application/x-ndjson");
+		response.setCharacterEncoding("UTF-8");
+		blogService.exportBlogs(response.getOutputStream());
+		LOGGER.info("Exiting exportBlogs() from BlogController");
+	}
+
+
+	/*
+	 * Adds the response's ETag; when it matches If-None-Match only a 304 is
+	 * sent and the body is never serialized. no-cache lets clients keep the
+	 * page but makes them revalidate it on every poll; the body format
+	 * depends on Accept, hence the Vary.
+	 */
+	private static ResponseEntity<CommonResponse> withETag(CommonResponse commonResponse, String ifNoneMatch) {
+		String eTag = commonResponse.getEntityTag();
+		if(eTag == null)
+			return ResponseEntity.ok(commonResponse);
+		CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+		if(ETags.matches(ifNoneMatch, eTag))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl)
+					.varyBy(HttpHeaders.ACCEPT).build();
+		return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT)
+				.body(commonResponse);
+	}
+
+
 	/*
 	 * Add Role
 	 */
@@ -98,6 +241,7 @@ public class BlogController {
 	public Role addRole(@RequestBody Role role ) throws IOException {
 
 		Role savedRole = roleRepository.save(role);
+		roleCache.reload();
 		return savedRole;
 
 	}
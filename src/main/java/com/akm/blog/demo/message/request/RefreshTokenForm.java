@@ -0,0 +1,16 @@
+package com.akm.blog.demo.message.request;
+
+import javax.validation.constraints.NotBlank;
+
+public class RefreshTokenForm {
+    @NotBlank
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
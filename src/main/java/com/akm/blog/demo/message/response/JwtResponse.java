@@ -6,6 +6,7 @@ import org.springframework.security.core.GrantedAuthority;
 
 public class JwtResponse {
 	private String token;
+	private String refreshToken;
 	private String type = "Bearer";
 	private String username;
 	private Collection<? extends GrantedAuthority> authorities;
@@ -16,6 +17,12 @@ public class JwtResponse {
 		this.authorities = authorities;
 	}
 
+	public JwtResponse(String accessToken, String refreshToken, String username,
+			Collection<? extends GrantedAuthority> authorities) {
+		this(accessToken, username, authorities);
+		this.refreshToken = refreshToken;
+	}
+
 	public String getAccessToken() {
 		return token;
 	}
@@ -24,6 +31,14 @@ public class JwtResponse {
 		this.token = accessToken;
 	}
 
+	public String getRefreshToken() {
+		return refreshToken;
+	}
+
+	public void setRefreshToken(String refreshToken) {
+		this.refreshToken = refreshToken;
+	}
+
 	public String getTokenType() {
 		return type;
 	}
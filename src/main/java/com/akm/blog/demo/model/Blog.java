@@ -2,25 +2,50 @@ package com.akm.blog.demo.model;
 
 import java.util.Calendar;
 
-import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Version;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 
 @Entity
+@DynamicUpdate
+@Table(name = "blog", indexes = {
+		@Index(name = "idx_blog_user_created", columnList = "user_id, createdAt, id"),
+		@Index(name = "idx_blog_deleted", columnList = "deleted, id")
+})
 public class Blog {
 	
+	/*
+	 * IDENTITY ids force one INSERT per statement; a pooled-lo allocator
+	 * hands out ids in blocks of 50 so inserts can be JDBC-batched. It is
+	 * backed by the blog_seq table on every database, sequences or not,
+	 * which BlogSequenceSeeder moves past existing ids at startup.
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "blog_seq")
+	@GenericGenerator(name = "blog_seq",
+			strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+			parameters = {
+					@Parameter(name = "sequence_name", value = "blog_seq"),
+					@Parameter(name = "initial_value", value = "1"),
+					@Parameter(name = "increment_size", value = "50"),
+					@Parameter(name = "optimizer", value = "pooled-lo"),
+					@Parameter(name = "force_table_use", value = "true")
+			})
 	private Long id;
 
 	private String name;
@@ -29,8 +54,11 @@ public class Blog {
 
 	
 
-	@ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY
-			)
+	/*
+	 * No cascade: a blog only carries the owner's foreign key, so saving
+	 * one must never merge or update the user row.
+	 */
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
 	@JoinColumn(name="user_id", nullable=false)
 	private User user;
 
@@ -38,6 +66,21 @@ public class Blog {
 	@Temporal(TemporalType.TIMESTAMP)
 	private Calendar createdAt;
 
+	/*
+	 * Bumped on every update; concurrent edits fail on flush instead of
+	 * silently overwriting each other. Also serves as the blog's ETag.
+	 */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
+	/*
+	 * Tombstone set by bulk delete; reads skip such rows and BlogPurger
+	 * deletes them physically in small batches off-peak.
+	 */
+	@Column(nullable = false)
+	private boolean deleted;
+
 	public Blog() {
 		super();
 	}
@@ -76,6 +119,14 @@ public class Blog {
 		this.createdAt = createdAt;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public boolean isDeleted() {
+		return deleted;
+	}
+
 	public String getName() {
 		return name;
 	}
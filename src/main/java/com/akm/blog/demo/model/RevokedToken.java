@@ -0,0 +1,49 @@
+package com.akm.blog.demo.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+		@Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+	@Id
+	@Column(length = 36)
+	private String jti;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "expires_at", nullable = false)
+	private Date expiresAt;
+
+	public RevokedToken() {}
+
+	public RevokedToken(String jti, Date expiresAt) {
+		this.jti = jti;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getJti() {
+		return jti;
+	}
+
+	public void setJti(String jti) {
+		this.jti = jti;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+}
@@ -3,5 +3,20 @@ package com.akm.blog.demo.model;
 public enum  RoleName {
     ROLE_USER,
     ROLE_PM,
-    ROLE_ADMIN
-}
\ No newline at end of file
+    ROLE_ADMIN;
+
+    /*
+     * Single-bit mask of this role, used to pack a user's roles into an int.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static int maskOf(RoleName... roleNames) {
+        int mask = 0;
+        for (RoleName roleName : roleNames) {
+            mask |= roleName.mask();
+        }
+        return mask;
+    }
+}
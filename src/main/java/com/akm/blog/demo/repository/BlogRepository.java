@@ -1,17 +1,62 @@
 package com.akm.blog.demo.repository;
 
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
 import com.akm.blog.demo.model.Blog;
 import com.akm.blog.demo.model.User;
 
 @Repository
-public interface BlogRepository extends JpaRepository<Blog, Long> {
+public interface BlogRepository extends JpaRepository<Blog, Long>, BlogRepositoryCustom {
     
-    Page<Blog> findAllByUser(User user, Pageable pageable);
+    /*
+     * Every read below skips tombstoned (deleted) blogs; BlogPurger removes
+     * those rows for good later.
+     */
+    Page<Blog> findAllByUserAndDeletedFalse(User user, Pageable pageable);
+
+    boolean existsByIdAndUserIdAndDeletedFalse(Long id, Long userId);
+
+    @Query(value = "select new com.akm.blog.demo.DTO.BlogSummaryDTO(b.id, b.name, b.description, b.createdAt, b.version)"
+    		+ " from Blog b where b.user.id = :userId and b.deleted = false",
+    		countQuery = "select count(b) from Blog b where b.user.id = :userId and b.deleted = false")
+    Page<BlogSummaryDTO> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /*
+     * Keyset pagination on (created_at, id): a List return type means no
+     * count query, and the seek predicate makes every page an index range
+     * scan instead of an OFFSET scan.
+     */
+    @Query("select new com.akm.blog.demo.DTO.BlogSummaryDTO(b.id, b.name, b.description, b.createdAt, b.version)"
+    		+ " from Blog b where b.user.id = :userId and b.deleted = false"
+    		+ " order by b.createdAt desc, b.id desc")
+    List<BlogSummaryDTO> findFirstSummaries(@Param("userId") Long userId, Pageable pageable);
 
+    @Query("select new com.akm.blog.demo.DTO.BlogSummaryDTO(b.id, b.name, b.description, b.createdAt, b.version)"
+    		+ " from Blog b where b.user.id = :userId and b.deleted = false"
+    		+ " and (b.createdAt < :createdAt or (b.createdAt = :createdAt and b.id < :id))"
+    		+ " order by b.createdAt desc, b.id desc")
+    List<BlogSummaryDTO> findSummariesAfter(@Param("userId") Long userId, @Param("createdAt") Calendar createdAt,
+    		@Param("id") Long id, Pageable pageable);
 
-}
\ No newline at end of file
+    /*
+     * Tombstones the caller's blogs in one statement; ids that are not the
+     * caller's, or already deleted, are left alone and not counted.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Blog b set b.deleted = true, b.version = b.version + 1"
+    		+ " where b.user.id = :userId and b.id in :ids and b.deleted = false")
+    int markDeleted(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,37 @@
+package com.akm.blog.demo.repository;
+
+import java.util.stream.Stream;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+
+public interface BlogRepositoryCustom {
+
+	/*
+	 * Updates only the non-null fields of the caller's blog in a single
+	 * statement and bumps its version; returns the new version, or null
+	 * when the blog does not exist, is deleted, belongs to someone else
+	 * or (when expectedVersion is given) is at another version.
+	 */
+	Long updateFields(Long id, Long userId, String name, String description, Long expectedVersion);
+
+	/*
+	 * Streams the caller's live blogs in id order without buffering the
+	 * result; must be consumed inside a transaction and closed. Projection
+	 * rows are never managed, so the persistence context stays empty however
+	 * many rows are read.
+	 */
+	Stream<BlogSummaryDTO> streamSummariesByUserId(Long userId);
+
+	/*
+	 * Every live blog with its owner id (owner, id, name, description,
+	 * createdAt, version), streamed the same way for the search index rebuild.
+	 */
+	Stream<Object[]> streamAllForIndex();
+
+	/*
+	 * Physically removes at most batchSize tombstoned rows, lowest ids
+	 * first, in one short transaction so row locks are held only briefly.
+	 * Returns the number of rows removed.
+	 */
+	int purgeDeleted(int batchSize);
+}
@@ -0,0 +1,100 @@
+package com.akm.blog.demo.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+
+public class BlogRepositoryImpl implements BlogRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/*
+	 * Integer.MIN_VALUE is MySQL Connector/J's streaming mode: rows are read
+	 * off the socket one at a time, with no server-side cursor and no change
+	 * to how every other statement is prepared.
+	 */
+	@Value("${grokonez.app.blogStreamFetchSize:-2147483648}")
+	private int streamFetchSize;
+
+	@Override
+	@Transactional
+	public Long updateFields(Long id, Long userId, String name, String description, Long expectedVersion) {
+		// Ownership and the version check are part of the WHERE clause, no entity is loaded
+		StringBuilder jpql = new StringBuilder("update Blog b set b.version = b.version + 1");
+		if (name != null)
+			jpql.append(", b.name = :name");
+		if (description != null)
+			jpql.append(", b.description = :description");
+		jpql.append(" where b.id = :id and b.user.id = :userId and b.deleted = false");
+		if (expectedVersion != null)
+			jpql.append(" and b.version = :version");
+
+		Query query = entityManager.createQuery(jpql.toString())
+				.setParameter("id", id)
+				.setParameter("userId", userId);
+		if (name != null)
+			query.setParameter("name", name);
+		if (description != null)
+			query.setParameter("description", description);
+		if (expectedVersion != null)
+			query.setParameter("version", expectedVersion);
+		if (query.executeUpdate() == 0)
+			return null;
+		if (expectedVersion != null)
+			return expectedVersion + 1;
+
+		// Without If-Match only the database knows the new version; the row
+		// lock taken by the update keeps it ours until commit
+		return entityManager.createQuery("select b.version from Blog b where b.id = :id", Long.class)
+				.setParameter("id", id)
+				.getSingleResult();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Stream<BlogSummaryDTO> streamSummariesByUserId(Long userId) {
+		return entityManager.createQuery("select new com.akm.blog.demo.DTO.BlogSummaryDTO(b.id, b.name,"
+				+ " b.description, b.createdAt, b.version) from Blog b"
+				+ " where b.user.id = :userId and b.deleted = false order by b.id", BlogSummaryDTO.class)
+				.setParameter("userId", userId)
+				.setHint(QueryHints.HINT_FETCH_SIZE, streamFetchSize)
+				.unwrap(org.hibernate.query.Query.class)
+				.stream();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Stream<Object[]> streamAllForIndex() {
+		return entityManager.createQuery("select b.user.id, b.id, b.name, b.description, b.createdAt, b.version"
+				+ " from Blog b where b.deleted = false", Object[].class)
+				.setHint(QueryHints.HINT_FETCH_SIZE, streamFetchSize)
+				.unwrap(org.hibernate.query.Query.class)
+				.stream();
+	}
+
+	@Override
+	@Transactional
+	public int purgeDeleted(int batchSize) {
+		// The ids come in order off idx_blog_deleted (deleted, id); deleting by primary
+		// key then touches exactly those rows, which is also safe for statement-based binlogs
+		List<Long> ids = entityManager.createQuery("select b.id from Blog b where b.deleted = true order by b.id",
+				Long.class)
+				.setMaxResults(batchSize)
+				.getResultList();
+		if (ids.isEmpty())
+			return 0;
+		return entityManager.createQuery("delete from Blog b where b.id in :ids and b.deleted = true")
+				.setParameter("ids", ids)
+				.executeUpdate();
+	}
+}
@@ -0,0 +1,34 @@
+package com.akm.blog.demo.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.model.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+	@Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+	List<String> findActiveJtis(@Param("now") Date now);
+
+	/*
+	 * Plain insert so that revoking the same token twice fails with a
+	 * constraint violation instead of silently merging.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "insert into revoked_tokens (jti, expires_at) values (:jti, :expiresAt)", nativeQuery = true)
+	int insert(@Param("jti") String jti, @Param("expiresAt") Date expiresAt);
+
+	@Modifying
+	@Transactional
+	@Query("delete from RevokedToken r where r.expiresAt <= :now")
+	int deleteExpired(@Param("now") Date now);
+}
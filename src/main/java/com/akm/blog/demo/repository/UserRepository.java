@@ -2,8 +2,13 @@ package com.akm.blog.demo.repository;
 
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.akm.blog.demo.model.User;
 
@@ -14,8 +19,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Boolean existsByUsername(String username);
      
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findOneWithAuthoritiesByUsername(String login);
     
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+    		@Param("newPassword") String newPassword);
 
 
-}
\ No newline at end of file
+}
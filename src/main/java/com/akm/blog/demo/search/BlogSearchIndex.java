@@ -0,0 +1,299 @@
+package com.akm.blog.demo.search;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.repository.BlogRepository;
+
+/*
+ * In-memory inverted index over blog name and description, one per user so
+ * a search only ever touches the caller's own postings. Results are ranked
+ * by TF-IDF (name terms count double) normalised by document length.
+ *
+ * The index is filled from the database on a background thread once the
+ * application is ready and kept current by indexing blogs after their
+ * transaction commits. Until the initial build finishes, searches answer
+ * from whatever has been indexed so far.
+ */
+@Component
+public class BlogSearchIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlogSearchIndex.class);
+
+	private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private static final int NAME_WEIGHT = 2;
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ConcurrentHashMap<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+
+	// blog id -> owning user id, to move a blog whose owner changed
+	private final ConcurrentHashMap<Long, Long> owners = new ConcurrentHashMap<>();
+
+	// blog id -> user id of blogs deleted while the rebuild runs, which must not be re-added by it
+	private final ConcurrentHashMap<Long, Long> removedDuringRebuild = new ConcurrentHashMap<>();
+
+	private volatile boolean ready;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildInBackground() {
+		Thread thread = new Thread(this::rebuild, "blog-search-rebuild");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public List<BlogSummaryDTO> search(Long userId, String query, int limit) {
+		UserIndex index = indexes.get(userId);
+		if (index == null || query == null)
+			return Collections.emptyList();
+		Set<String> terms = new LinkedHashSet<>();
+		for (String token : NON_WORD.split(query.toLowerCase(Locale.ROOT)))
+			if (!token.isEmpty())
+				terms.add(token);
+		if (terms.isEmpty())
+			return Collections.emptyList();
+		return index.search(terms, limit);
+	}
+
+	/*
+	 * Indexes the blog once the surrounding transaction has committed, so a
+	 * rolled back write never shows up in search results. The entity is read
+	 * after commit, when generated values such as createdAt are populated.
+	 */
+	public void indexAfterCommit(Long userId, Blog blog) {
+		afterCommit(() -> index(userId, blog));
+	}
+
+	/*
+	 * Applies a partial update (null fields unchanged) to an indexed blog
+	 * after commit. A null version means the new version is not known; the
+	 * indexed copy then carries no version rather than a guessed one.
+	 */
+	public void updateAfterCommit(Long userId, Long blogId, String name, String description, Long version) {
+		afterCommit(() -> update(userId, blogId, name, description, version));
+	}
+
+	public void removeAfterCommit(Long userId, Collection<Long> blogIds) {
+		afterCommit(() -> remove(userId, blogIds));
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private synchronized void remove(Long userId, Collection<Long> blogIds) {
+		UserIndex index = indexes.get(userId);
+		for (Long blogId : blogIds) {
+			if (!ready)
+				removedDuringRebuild.put(blogId, userId);
+			if (owners.remove(blogId, userId) && index != null)
+				index.remove(blogId);
+		}
+	}
+
+	private synchronized void update(Long userId, Long blogId, String name, String description, Long version) {
+		UserIndex index = indexes.get(userId);
+		BlogSummaryDTO current = index == null ? null : index.get(blogId);
+		// Not indexed yet: the running rebuild reads the updated row
+		if (current == null)
+			return;
+		// Edits may commit out of order; a version that is unknown or not newer is dropped
+		Long newVersion = version != null && (current.getVersion() == null || version > current.getVersion())
+				? version : null;
+		index.put(new BlogSummaryDTO(blogId, name != null ? name : current.getName(),
+				description != null ? description : current.getDescription(), current.getCreatedAt(), newVersion));
+	}
+
+	private void index(Long userId, Blog blog) {
+		index(userId, new BlogSummaryDTO(blog.getId(), blog.getName(), blog.getDescription(), blog.getCreatedAt(),
+				blog.getVersion()), false);
+	}
+
+	/*
+	 * onlyIfAbsent is used by the rebuild: a blog indexed by a committed
+	 * write while the rebuild was running is newer than the rebuild's row.
+	 */
+	private synchronized void index(Long userId, BlogSummaryDTO blog, boolean onlyIfAbsent) {
+		Long previousOwner = onlyIfAbsent ? owners.putIfAbsent(blog.getId(), userId)
+				: owners.put(blog.getId(), userId);
+		if (onlyIfAbsent && (previousOwner != null || userId.equals(removedDuringRebuild.get(blog.getId())))) {
+			if (previousOwner == null)
+				owners.remove(blog.getId(), userId);
+			return;
+		}
+		if (previousOwner != null && !previousOwner.equals(userId)) {
+			UserIndex previous = indexes.get(previousOwner);
+			if (previous != null)
+				previous.remove(blog.getId());
+		}
+		indexes.computeIfAbsent(userId, id -> new UserIndex()).put(blog);
+	}
+
+	void rebuild() {
+		long start = System.nanoTime();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		try {
+			Long rows = transactionTemplate.execute(status -> {
+				long count = 0;
+				try (Stream<Object[]> blogs = blogRepository.streamAllForIndex()) {
+					Iterator<Object[]> it = blogs.iterator();
+					while (it.hasNext()) {
+						Object[] row = it.next();
+						index((Long) row[0], new BlogSummaryDTO((Long) row[1], (String) row[2], (String) row[3],
+								(Calendar) row[4], (Long) row[5]), true);
+						count++;
+					}
+				}
+				return count;
+			});
+			ready = true;
+			removedDuringRebuild.clear();
+			LOGGER.info("Blog search index built from {} blogs in {} ms", rows,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} catch (Exception e) {
+			LOGGER.error("Could not build blog search index: {}", e.getMessage());
+		}
+	}
+
+	private static final class Document {
+
+		private final BlogSummaryDTO blog;
+
+		private final Set<String> terms;
+
+		private final double norm;
+
+		Document(BlogSummaryDTO blog, Set<String> terms, int length) {
+			this.blog = blog;
+			this.terms = terms;
+			this.norm = Math.sqrt(Math.max(length, 1));
+		}
+	}
+
+	private static final class UserIndex {
+
+		private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+		private final Map<Long, Document> documents = new HashMap<>();
+
+		synchronized void put(BlogSummaryDTO blog) {
+			remove(blog.getId());
+			Map<String, Integer> frequencies = new HashMap<>();
+			int length = addTerms(frequencies, blog.getName(), NAME_WEIGHT)
+					+ addTerms(frequencies, blog.getDescription(), 1);
+			for (Map.Entry<String, Integer> term : frequencies.entrySet())
+				postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(blog.getId(), term.getValue());
+			documents.put(blog.getId(), new Document(blog, frequencies.keySet(), length));
+		}
+
+		synchronized BlogSummaryDTO get(Long blogId) {
+			Document document = documents.get(blogId);
+			return document == null ? null : document.blog;
+		}
+
+		synchronized void remove(Long blogId) {
+			Document document = documents.remove(blogId);
+			if (document == null)
+				return;
+			for (String term : document.terms) {
+				Map<Long, Integer> posting = postings.get(term);
+				if (posting != null) {
+					posting.remove(blogId);
+					if (posting.isEmpty())
+						postings.remove(term);
+				}
+			}
+		}
+
+		synchronized List<BlogSummaryDTO> search(Set<String> terms, int limit) {
+			int documentCount = documents.size();
+			Map<Long, Double> scores = new HashMap<>();
+			for (String term : terms) {
+				Map<Long, Integer> posting = postings.get(term);
+				if (posting == null)
+					continue;
+				double idf = Math.log(1.0 + (double) documentCount / posting.size());
+				for (Map.Entry<Long, Integer> entry : posting.entrySet())
+					scores.merge(entry.getKey(), entry.getValue() * idf, Double::sum);
+			}
+
+			// Bounded min-heap keeps the best `limit` hits; newer blogs win ties
+			Comparator<Map.Entry<Long, Double>> byScore = Comparator
+					.<Map.Entry<Long, Double>>comparingDouble(Map.Entry::getValue)
+					.thenComparing(Map.Entry::getKey);
+			PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, byScore);
+			for (Map.Entry<Long, Double> score : scores.entrySet()) {
+				score.setValue(score.getValue() / documents.get(score.getKey()).norm);
+				top.offer(score);
+				if (top.size() > limit)
+					top.poll();
+			}
+
+			List<BlogSummaryDTO> hits = new ArrayList<>(top.size());
+			while (!top.isEmpty())
+				hits.add(documents.get(top.poll().getKey()).blog);
+			Collections.reverse(hits);
+			return hits;
+		}
+
+		private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+			if (text == null)
+				return 0;
+			int length = 0;
+			for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+				if (token.isEmpty())
+					continue;
+				frequencies.merge(token, weight, Integer::sum);
+				length++;
+			}
+			return length;
+		}
+	}
+}
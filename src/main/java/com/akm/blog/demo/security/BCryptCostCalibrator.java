@@ -0,0 +1,85 @@
+package com.akm.blog.demo.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+/*
+ * Picks, once at startup, the BCrypt cost whose hash time on this machine is
+ * closest to the configured target. A fixed cost can still be forced with
+ * grokonez.app.bcrypt.cost.
+ */
+@Component
+public class BCryptCostCalibrator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+	private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+	private static final int SAMPLES = 3;
+
+	@Value("${grokonez.app.bcrypt.cost:0}")
+	private int fixedCost;
+
+	@Value("${grokonez.app.bcrypt.targetMillis:100}")
+	private long targetMillis;
+
+	@Value("${grokonez.app.bcrypt.minCost:10}")
+	private int minCost;
+
+	@Value("${grokonez.app.bcrypt.maxCost:14}")
+	private int maxCost;
+
+	private int cost;
+
+	@PostConstruct
+	public void calibrate() {
+		if (fixedCost > 0) {
+			cost = fixedCost;
+			LOGGER.info("Using configured BCrypt cost {}", cost);
+			return;
+		}
+
+		// Warm up, then time the cheapest allowed cost; each extra round doubles the work
+		double baseMillis = measureMillis(minCost);
+		baseMillis = Math.min(baseMillis, measureMillis(minCost));
+		int estimate = minCost + (int) Math.round(Math.log(targetMillis / Math.max(baseMillis, 0.01)) / Math.log(2));
+		cost = Math.max(minCost, Math.min(maxCost, estimate));
+
+		LOGGER.info("Calibrated BCrypt cost {} (cost {} took {} ms, target {} ms)",
+				cost, minCost, String.format("%.1f", baseMillis), targetMillis);
+	}
+
+	public int getCost() {
+		return cost;
+	}
+
+	/*
+	 * Returns the cost encoded in a BCrypt hash, or -1 if the value is not a
+	 * BCrypt hash.
+	 */
+	public static int costOf(String encodedPassword) {
+		if (encodedPassword == null)
+			return -1;
+		Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+		return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+	}
+
+	private static double measureMillis(int rounds) {
+		String salt = BCrypt.gensalt(rounds);
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < SAMPLES; i++) {
+			long start = System.nanoTime();
+			BCrypt.hashpw("calibration-password", salt);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1_000_000.0;
+	}
+}
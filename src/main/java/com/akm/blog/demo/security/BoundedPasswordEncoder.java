@@ -0,0 +1,29 @@
+package com.akm.blog.demo.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/*
+ * Runs every encode/matches call of the wrapped encoder on the
+ * PasswordHashingExecutor instead of the calling request thread.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+	private final PasswordEncoder delegate;
+
+	private final PasswordHashingExecutor executor;
+
+	public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executor.execute(() -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+}
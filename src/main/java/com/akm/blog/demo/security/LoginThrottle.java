@@ -0,0 +1,83 @@
+package com.akm.blog.demo.security;
+
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Rejects signin attempts per username and per client IP before any
+ * password hashing happens. Every attempt costs an IP token; the username
+ * token is refunded unless the password turned out wrong, so successful
+ * logins never drain a user's bucket. The client IP is the remote address
+ * as resolved by server.use-forward-headers, never a raw request header.
+ */
+@Component
+public class LoginThrottle {
+
+	@Value("${grokonez.app.loginThrottle.username.capacity:5}")
+	private int usernameCapacity;
+
+	@Value("${grokonez.app.loginThrottle.username.refillPerSecond:0.1}")
+	private double usernameRefillPerSecond;
+
+	@Value("${grokonez.app.loginThrottle.ip.capacity:20}")
+	private int ipCapacity;
+
+	@Value("${grokonez.app.loginThrottle.ip.refillPerSecond:1}")
+	private double ipRefillPerSecond;
+
+	@Value("${grokonez.app.loginThrottle.maxKeys:100000}")
+	private int maxKeys;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private TokenBucketThrottle byUsername;
+
+	private TokenBucketThrottle byIp;
+
+	private Counter usernameThrottled;
+
+	private Counter ipThrottled;
+
+	@PostConstruct
+	public void init() {
+		byUsername = new TokenBucketThrottle(usernameCapacity, usernameRefillPerSecond, maxKeys);
+		byIp = new TokenBucketThrottle(ipCapacity, ipRefillPerSecond, maxKeys);
+
+		usernameThrottled = Counter.builder("login.throttled").tag("key", "username").register(meterRegistry);
+		ipThrottled = Counter.builder("login.throttled").tag("key", "ip").register(meterRegistry);
+		Gauge.builder("login.throttle.keys", byUsername, TokenBucketThrottle::size).tag("key", "username")
+				.register(meterRegistry);
+		Gauge.builder("login.throttle.keys", byIp, TokenBucketThrottle::size).tag("key", "ip")
+				.register(meterRegistry);
+	}
+
+	public void check(String username, String clientIp) {
+		if (clientIp != null && !byIp.tryAcquire(clientIp)) {
+			ipThrottled.increment();
+			throw new LoginThrottledException("Too many login attempts from " + clientIp);
+		}
+		if (username != null && !byUsername.tryAcquire(username.toLowerCase(Locale.ROOT))) {
+			usernameThrottled.increment();
+			throw new LoginThrottledException("Too many login attempts for " + username);
+		}
+	}
+
+	/*
+	 * Gives back the username token taken by check() once the attempt is
+	 * known not to be a failed password guess.
+	 */
+	public void refund(String username) {
+		if (username != null)
+			byUsername.release(username.toLowerCase(Locale.ROOT));
+	}
+}
@@ -0,0 +1,14 @@
+package com.akm.blog.demo.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Too many login attempts, retry later")
+public class LoginThrottledException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public LoginThrottledException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,160 @@
+package com.akm.blog.demo.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Dedicated, bounded pool for password hashing so that a login storm can
+ * only ever occupy a fixed number of cores. When the pool and its queue are
+ * full, callers are rejected immediately instead of piling up on request
+ * threads.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+	@Value("${grokonez.app.passwordHashing.threads:0}")
+	private int threads;
+
+	@Value("${grokonez.app.passwordHashing.queueCapacity:64}")
+	private int queueCapacity;
+
+	@Value("${grokonez.app.passwordHashing.timeoutMillis:2000}")
+	private long timeoutMillis;
+
+	@Value("${grokonez.app.passwordHashing.bulkThreads:0}")
+	private int bulkThreads;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private ThreadPoolExecutor executor;
+
+	private Timer hashTimer;
+
+	private Counter rejectedCounter;
+
+	private Semaphore bulkPermits;
+
+	@PostConstruct
+	public void init() {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		bulkPermits = new Semaphore(bulkThreads > 0 ? Math.min(bulkThreads, poolSize) : Math.max(1, poolSize / 2));
+
+		hashTimer = Timer.builder("password.hash.latency").register(meterRegistry);
+		rejectedCounter = Counter.builder("password.hash.rejected").register(meterRegistry);
+		Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+		Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Runs the hashing task on the pool and waits for its result, failing
+	 * fast with PasswordHashingRejectedException when the pool is saturated
+	 * or the task does not finish in time.
+	 */
+	public <T> T execute(Callable<T> task) {
+		Future<T> future;
+		try {
+			future = executor.submit(() -> hashTimer.recordCallable(task));
+		} catch (RejectedExecutionException e) {
+			rejectedCounter.increment();
+			throw new PasswordHashingRejectedException("Password hashing queue is full");
+		}
+
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			rejectedCounter.increment();
+			throw new PasswordHashingRejectedException("Password hashing timed out");
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing");
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+	}
+
+	/*
+	 * Runs a batch of hashing tasks (bulk user import) on the same pool, but
+	 * never with more than bulkThreads of them queued or running across all
+	 * callers, so signin and signup always keep the rest of the pool. Results
+	 * are returned in task order.
+	 */
+	public <T> List<T> executeAll(List<? extends Callable<T>> tasks) throws InterruptedException {
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		try {
+			for (Callable<T> task : tasks) {
+				bulkPermits.acquire();
+				// done() runs exactly once, also for tasks cancelled before they start
+				FutureTask<T> future = new FutureTask<T>(() -> hashTimer.recordCallable(task)) {
+					@Override
+					protected void done() {
+						bulkPermits.release();
+					}
+				};
+				try {
+					executor.execute(future);
+				} catch (RejectedExecutionException e) {
+					bulkPermits.release();
+					rejectedCounter.increment();
+					throw new PasswordHashingRejectedException("Password hashing queue is full");
+				}
+				futures.add(future);
+			}
+
+			List<T> results = new ArrayList<>(futures.size());
+			for (Future<T> future : futures)
+				results.add(future.get());
+			return results;
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		} finally {
+			// No-op for completed tasks; frees the pool when the batch is abandoned
+			for (Future<T> future : futures)
+				future.cancel(true);
+		}
+	}
+
+	private static RuntimeException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof RuntimeException)
+			return (RuntimeException) cause;
+		return new IllegalStateException(cause);
+	}
+}
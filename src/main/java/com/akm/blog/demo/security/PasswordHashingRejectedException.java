@@ -0,0 +1,14 @@
+package com.akm.blog.demo.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Authentication service is busy, retry later")
+public class PasswordHashingRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PasswordHashingRejectedException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,23 @@
+package com.akm.blog.demo.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.akm.blog.demo.model.RoleName;
+
+/*
+ * Restricts a controller method (or every method of a controller) to users
+ * holding all of the given roles. Checked by RoleCheckInterceptor with a
+ * precomputed bitmask instead of a SpEL expression.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresRole {
+
+	RoleName[] value();
+
+}
@@ -0,0 +1,67 @@
+package com.akm.blog.demo.security;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+/*
+ * Enforces @RequiresRole. The required mask is resolved once per handler
+ * method; each request then costs a map lookup and a bitwise AND against
+ * the mask carried by the UserPrinciple.
+ */
+public class RoleCheckInterceptor implements HandlerInterceptor {
+
+	private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!(handler instanceof HandlerMethod))
+			return true;
+
+		// Checked on the initial dispatch already; the re-dispatch that writes a
+		// DeferredResult has no security context with stateless sessions
+		if (request.getDispatcherType() == DispatcherType.ASYNC)
+			return true;
+
+		int requiredMask = requiredMasks.computeIfAbsent(((HandlerMethod) handler).getMethod(),
+				method -> resolveMask((HandlerMethod) handler));
+		if (requiredMask == 0)
+			return true;
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && hasRoles(authentication, requiredMask))
+			return true;
+
+		throw new AccessDeniedException("Access is denied");
+	}
+
+	private static boolean hasRoles(Authentication authentication, int requiredMask) {
+		Object principal = authentication.getPrincipal();
+		if (principal instanceof UserPrinciple)
+			return ((UserPrinciple) principal).hasRoles(requiredMask);
+		int mask = UserPrinciple.roleMaskOf(authentication.getAuthorities());
+		return (mask & requiredMask) == requiredMask;
+	}
+
+	private static int resolveMask(HandlerMethod handlerMethod) {
+		RequiresRole requiresRole = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(),
+				RequiresRole.class);
+		if (requiresRole == null)
+			requiresRole = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequiresRole.class);
+		return requiresRole != null ? RoleName.maskOf(requiresRole.value()) : 0;
+	}
+}
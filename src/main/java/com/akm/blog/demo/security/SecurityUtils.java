@@ -6,6 +6,8 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.akm.blog.demo.security.services.UserPrinciple;
+
 public class SecurityUtils {
 	
 	public static Optional<String> getCurrentUserLogin() {
@@ -22,4 +24,16 @@ public class SecurityUtils {
             });
     }
 
+	/*
+	 * Id of the authenticated user, taken from the principal the JWT filter
+	 * put into this request's security context, so no user lookup is needed.
+	 */
+	public static Optional<Long> getCurrentUserId() {
+		SecurityContext securityContext = SecurityContextHolder.getContext();
+		return Optional.ofNullable(securityContext.getAuthentication())
+			.map(authentication -> authentication.getPrincipal() instanceof UserPrinciple
+					? ((UserPrinciple) authentication.getPrincipal()).getId()
+					: null);
+	}
+
 }
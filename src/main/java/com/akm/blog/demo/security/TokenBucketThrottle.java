@@ -0,0 +1,102 @@
+package com.akm.blog.demo.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Per-key token buckets, lock-striped: a key only ever contends with keys
+ * hashing to the same stripe. Each stripe is an access-ordered map that
+ * evicts its least recently used bucket once full, so idle keys are
+ * forgotten (a forgotten key simply starts again with a full bucket).
+ */
+public class TokenBucketThrottle {
+
+	private static final int STRIPES = 64;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	private final double capacity;
+
+	private final double refillPerNano;
+
+	public TokenBucketThrottle(int capacity, double refillPerSecond, int maxKeys) {
+		this.capacity = capacity;
+		this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+		int keysPerStripe = Math.max(1, maxKeys / STRIPES);
+		for (int i = 0; i < STRIPES; i++)
+			stripes[i] = new Stripe(keysPerStripe);
+	}
+
+	public boolean tryAcquire(String key) {
+		Stripe stripe = stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+		long now = System.nanoTime();
+		synchronized (stripe) {
+			Bucket bucket = stripe.get(key);
+			if (bucket == null) {
+				bucket = new Bucket(capacity, now);
+				stripe.put(key, bucket);
+			}
+			return bucket.tryConsume(now);
+		}
+	}
+
+	/*
+	 * Returns one token to the key's bucket, never above capacity.
+	 */
+	public void release(String key) {
+		Stripe stripe = stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+		synchronized (stripe) {
+			Bucket bucket = stripe.get(key);
+			if (bucket != null)
+				bucket.tokens = Math.min(capacity, bucket.tokens + 1.0);
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	private final class Bucket {
+
+		private double tokens;
+
+		private long lastRefillNanos;
+
+		Bucket(double tokens, long now) {
+			this.tokens = tokens;
+			this.lastRefillNanos = now;
+		}
+
+		boolean tryConsume(long now) {
+			tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+			lastRefillNanos = now;
+			if (tokens < 1.0)
+				return false;
+			tokens -= 1.0;
+			return true;
+		}
+	}
+
+	private final class Stripe extends LinkedHashMap<String, Bucket> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxKeys;
+
+		Stripe(int maxKeys) {
+			super(16, 0.75f, true);
+			this.maxKeys = maxKeys;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+			return size() > maxKeys;
+		}
+	}
+}
@@ -6,16 +6,18 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
+import com.akm.blog.demo.security.jwt.SecurityFailureTelemetry.FailureType;
+
 @Component
 public class JwtAuthEntryPoint implements AuthenticationEntryPoint {
 
-    private static final Logger logger = LoggerFactory.getLogger(JwtAuthEntryPoint.class);
+    @Autowired
+    private SecurityFailureTelemetry telemetry;
     
     @Override
     public void commence(HttpServletRequest request,
@@ -23,7 +25,7 @@ public class JwtAuthEntryPoint implements AuthenticationEntryPoint {
                          AuthenticationException e) 
                         		 throws IOException, ServletException {
     	
-        logger.error("Unauthorized error. Message - {}", e.getMessage());
+        telemetry.record(FailureType.UNAUTHORIZED, request.getRequestURI() + " - " + e.getMessage());
         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Error -> Unauthorized");
     }
 }
\ No newline at end of file
@@ -7,17 +7,19 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.akm.blog.demo.security.jwt.SecurityFailureTelemetry.FailureType;
 import com.akm.blog.demo.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class JwtAuthTokenFilter extends OncePerRequestFilter {
 
 	@Autowired
@@ -26,7 +28,17 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
 	@Autowired
 	private UserDetailsServiceImpl userDetailsService;
 
-	private static final Logger logger = LoggerFactory.getLogger(JwtAuthTokenFilter.class);
+	@Autowired
+	private JwtRecheckPolicy recheckPolicy;
+
+	@Autowired
+	private TokenRevocationService revocationService;
+
+	@Autowired
+	private SecurityFailureTelemetry telemetry;
+
+	@Value("${grokonez.app.jwtStatelessAuth:true}")
+	private boolean statelessAuth;
 
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -34,23 +46,44 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
 		try {
 
 			String jwt = getJwt(request);
-			if (jwt != null && tokenProvider.validateJwtToken(jwt)) {
-				String username = tokenProvider.getUserNameFromJwtToken(jwt);
-
-				UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-				UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-						userDetails, null, userDetails.getAuthorities());
-				authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-				SecurityContextHolder.getContext().setAuthentication(authentication);
+			Claims claims = jwt != null ? tokenProvider.getValidClaims(jwt) : null;
+			if (claims != null && tokenProvider.isRefreshToken(claims)) {
+				telemetry.record(FailureType.UNSUPPORTED, "Refresh token presented as access token");
+			} else if (claims != null && revocationService.isRevoked(claims.getId())) {
+				telemetry.record(FailureType.REVOKED, "Revoked token " + claims.getId());
+			} else if (claims != null) {
+				UserDetails userDetails = loadUserDetails(claims);
+				if (userDetails.isEnabled()) {
+					UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+							userDetails, null, userDetails.getAuthorities());
+					authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+					SecurityContextHolder.getContext().setAuthentication(authentication);
+				} else {
+					telemetry.record(FailureType.UNAUTHORIZED, "Token of deactivated user " + claims.getSubject());
+				}
 			}
 		} catch (Exception e) {
-			logger.error("Can NOT set user authentication -> Message: {}", e);
+			telemetry.record(FailureType.FILTER_ERROR,
+					"Can NOT set user authentication -> " + e.getClass().getSimpleName() + ": " + e.getMessage());
 		}
 
 		filterChain.doFilter(request, response);
 	}
 
+	private UserDetails loadUserDetails(Claims claims) {
+		if (statelessAuth && !recheckPolicy.requiresDatabaseCheck(claims)) {
+			UserDetails userDetails = tokenProvider.getUserPrincipleFromClaims(claims);
+			if (userDetails != null) {
+				return userDetails;
+			}
+		}
+
+		UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+		recheckPolicy.markVerified(claims.getSubject());
+		return userDetails;
+	}
+
 	private String getJwt(HttpServletRequest request) {
 		String authHeader = request.getHeader("Authorization");
 
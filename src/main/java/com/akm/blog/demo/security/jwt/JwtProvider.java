@@ -1,20 +1,51 @@
 package com.akm.blog.demo.security.jwt;
 
 import io.jsonwebtoken.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.akm.blog.demo.common.ExpiringCache;
+import com.akm.blog.demo.security.jwt.SecurityFailureTelemetry.FailureType;
 import com.akm.blog.demo.security.services.UserPrinciple;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
 
 @Component
 public class JwtProvider {
 
-    private static final Logger logger = LoggerFactory.getLogger(JwtProvider.class);
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_AUTHORITIES = "auth";
+    static final String CLAIM_TOKEN_TYPE = "typ";
+    static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
     @Value("${grokonez.app.jwtSecret}")
     private String jwtSecret;
@@ -22,41 +53,160 @@ public class JwtProvider {
     @Value("${grokonez.app.jwtExpiration}")
     private int jwtExpiration;
 
+    @Value("${grokonez.app.jwtRefreshExpiration}")
+    private int jwtRefreshExpiration;
+
+    @Value("${grokonez.app.jwtCacheSize:10000}")
+    private int jwtCacheSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SecurityFailureTelemetry telemetry;
+
+    private Key signingKey;
+
+    private JwtParser jwtParser;
+
+    /*
+     * Verified tokens keyed by SHA-256 digest; each entry expires at the
+     * token's own exp claim. Cached claims are shared, never mutate them.
+     */
+    private ExpiringCache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        // Same key derivation as signWith(alg, String): the secret is base64
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        // The configured parser holds no per-parse state and is shared by all requests
+        jwtParser = Jwts.parser().setSigningKey(signingKey);
+        verifiedTokens = new ExpiringCache<>(jwtCacheSize);
+
+        FunctionCounter.builder("jwt.cache.hits", verifiedTokens, ExpiringCache::hitCount).register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.misses", verifiedTokens, ExpiringCache::missCount).register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.evictions", verifiedTokens, ExpiringCache::evictionCount).register(meterRegistry);
+        Gauge.builder("jwt.cache.hit.ratio", verifiedTokens, ExpiringCache::hitRate).register(meterRegistry);
+        Gauge.builder("jwt.cache.size", verifiedTokens, ExpiringCache::size).register(meterRegistry);
+    }
+
     public String generateJwtToken(Authentication authentication) {
+        return generateJwtToken((UserPrinciple) authentication.getPrincipal());
+    }
+
+    public String generateJwtToken(UserPrinciple userPrincipal) {
+
+        String authorities = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
 
-        UserPrinciple userPrincipal = (UserPrinciple) authentication.getPrincipal();
+        return Jwts.builder()
+		                .setId(UUID.randomUUID().toString())
+		                .setSubject((userPrincipal.getUsername()))
+		                .claim(CLAIM_USER_ID, userPrincipal.getId())
+		                .claim(CLAIM_AUTHORITIES, authorities)
+		                .setIssuedAt(new Date())
+		                .setExpiration(new Date((new Date()).getTime() + jwtExpiration*1000L))
+		                .signWith(SignatureAlgorithm.HS512, signingKey)
+		                .compact();
+    }
 
+    /*
+     * Long-lived token that can only be exchanged at /api/auth/refresh; it
+     * carries no authorities and is never accepted as an access token.
+     */
+    public String generateRefreshToken(UserPrinciple userPrincipal) {
         return Jwts.builder()
+		                .setId(UUID.randomUUID().toString())
 		                .setSubject((userPrincipal.getUsername()))
+		                .claim(CLAIM_USER_ID, userPrincipal.getId())
+		                .claim(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH)
 		                .setIssuedAt(new Date())
-		                .setExpiration(new Date((new Date()).getTime() + jwtExpiration*1000))
-		                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+		                .setExpiration(new Date((new Date()).getTime() + jwtRefreshExpiration*1000L))
+		                .signWith(SignatureAlgorithm.HS512, signingKey)
 		                .compact();
     }
+
+    public boolean isRefreshToken(Claims claims) {
+        return TOKEN_TYPE_REFRESH.equals(claims.get(CLAIM_TOKEN_TYPE));
+    }
     
     public boolean validateJwtToken(String authToken) {
+        return getValidClaims(authToken) != null;
+    }
+
+    /*
+     * Returns the verified claims, or null (after recording why) when the
+     * token is not acceptable.
+     */
+    public Claims getValidClaims(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return getClaimsFromJwtToken(authToken);
         } catch (SignatureException e) {
-            logger.error("Invalid JWT signature -> Message: {} ", e);
+            telemetry.record(FailureType.SIGNATURE, e.getMessage());
         } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token -> Message: {}", e);
+            telemetry.record(FailureType.MALFORMED, e.getMessage());
         } catch (ExpiredJwtException e) {
-            logger.error("Expired JWT token -> Message: {}", e);
+            telemetry.record(FailureType.EXPIRED, e.getMessage());
         } catch (UnsupportedJwtException e) {
-            logger.error("Unsupported JWT token -> Message: {}", e);
+            telemetry.record(FailureType.UNSUPPORTED, e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty -> Message: {}", e);
+            telemetry.record(FailureType.EMPTY, e.getMessage());
         }
         
-        return false;
+        return null;
     }
     
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-			                .setSigningKey(jwtSecret)
-			                .parseClaimsJws(token)
-			                .getBody().getSubject();
+        return getClaimsFromJwtToken(token).getSubject();
+    }
+
+    public Claims getClaimsFromJwtToken(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+
+        String digest = digest(token);
+        Claims claims = verifiedTokens.get(digest);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims, claims.getExpiration().getTime());
+            }
+        }
+        return claims;
+    }
+
+    /*
+     * Rebuilds the principal from the signed claims alone. Returns null for
+     * tokens issued before the id/authority claims existed, so callers fall
+     * back to the database lookup.
+     */
+    public UserPrinciple getUserPrincipleFromClaims(Claims claims) {
+        Object userId = claims.get(CLAIM_USER_ID);
+        Object authorities = claims.get(CLAIM_AUTHORITIES);
+        if (!(userId instanceof Number) || !(authorities instanceof String)) {
+            return null;
+        }
+
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>();
+        for (String authority : ((String) authorities).split(",")) {
+            if (!authority.isEmpty()) {
+                grantedAuthorities.add(new SimpleGrantedAuthority(authority));
+            }
+        }
+
+        return new UserPrinciple(
+                ((Number) userId).longValue(),
+                claims.getSubject(),
+                null,
+                true,
+                grantedAuthorities
+        );
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.akm.blog.demo.security.jwt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+
+/*
+ * Decides when a request authenticated from token claims must still be
+ * checked against the database: once per staleness window per user. A
+ * role change or deactivation therefore reaches already issued tokens
+ * within jwtRecheckSeconds plus the user cache TTL.
+ */
+@Component
+public class JwtRecheckPolicy {
+
+	private static final int MAX_TRACKED_USERS = 100_000;
+
+	@Value("${grokonez.app.jwtRecheckSeconds:900}")
+	private long recheckSeconds;
+
+	private final Map<String, Long> verifiedAt = new ConcurrentHashMap<>();
+
+	public boolean requiresDatabaseCheck(Claims claims) {
+		String username = claims.getSubject();
+		long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+
+		long lastVerified = Math.max(issuedAt, verifiedAt.getOrDefault(username, 0L));
+		return System.currentTimeMillis() - lastVerified > TimeUnit.SECONDS.toMillis(recheckSeconds);
+	}
+
+	public void markVerified(String username) {
+		prune(verifiedAt, TimeUnit.SECONDS.toMillis(recheckSeconds));
+		verifiedAt.put(username, System.currentTimeMillis());
+	}
+
+	private void prune(Map<String, Long> timestamps, long maxAgeMillis) {
+		if (timestamps.size() >= MAX_TRACKED_USERS) {
+			long cutoff = System.currentTimeMillis() - maxAgeMillis;
+			timestamps.values().removeIf(timestamp -> timestamp < cutoff);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.akm.blog.demo.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Counts every authentication failure by type and logs at most
+ * maxPerSecond of them, as one line without stack trace. Events dropped by
+ * the sampler are reported on the next line that gets through.
+ */
+@Component
+public class SecurityFailureTelemetry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SecurityFailureTelemetry.class);
+
+	public enum FailureType {
+		SIGNATURE, EXPIRED, MALFORMED, UNSUPPORTED, EMPTY, REVOKED, UNAUTHORIZED, FILTER_ERROR
+	}
+
+	@Value("${grokonez.app.securityLog.maxPerSecond:10}")
+	private int maxPerSecond;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final Map<FailureType, Counter> counters = new EnumMap<>(FailureType.class);
+
+	private final AtomicLong currentSecond = new AtomicLong();
+
+	private final AtomicInteger loggedThisSecond = new AtomicInteger();
+
+	private final AtomicLong suppressed = new AtomicLong();
+
+	@PostConstruct
+	public void init() {
+		for (FailureType type : FailureType.values()) {
+			counters.put(type, Counter.builder("security.failures")
+					.tag("type", type.name().toLowerCase())
+					.register(meterRegistry));
+		}
+	}
+
+	public void record(FailureType type, String detail) {
+		counters.get(type).increment();
+		if (!tryAcquireLogPermit()) {
+			suppressed.incrementAndGet();
+			return;
+		}
+		long dropped = suppressed.getAndSet(0);
+		if (type == FailureType.EXPIRED) {
+			LOGGER.info("security_failure type={} detail=\"{}\" suppressed={}", type, detail, dropped);
+		} else {
+			LOGGER.warn("security_failure type={} detail=\"{}\" suppressed={}", type, detail, dropped);
+		}
+	}
+
+	private boolean tryAcquireLogPermit() {
+		long now = System.currentTimeMillis() / 1000;
+		long second = currentSecond.get();
+		if (now != second && currentSecond.compareAndSet(second, now)) {
+			loggedThisSecond.set(0);
+		}
+		return loggedThisSecond.incrementAndGet() <= maxPerSecond;
+	}
+}
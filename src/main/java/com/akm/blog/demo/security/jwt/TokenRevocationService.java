@@ -0,0 +1,89 @@
+package com.akm.blog.demo.security.jwt;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.akm.blog.demo.common.BloomFilter;
+import com.akm.blog.demo.repository.RevokedTokenRepository;
+
+/*
+ * Revoked token ids live in the revoked_tokens table and are mirrored into
+ * an in-memory Bloom filter. A token whose id is not in the filter is
+ * accepted without any I/O; only filter hits (real revocations and rare
+ * false positives) are confirmed against the table. The filter is rebuilt
+ * periodically, which also picks up revocations made on other nodes.
+ */
+@Component
+public class TokenRevocationService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationService.class);
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@Value("${grokonez.app.revocation.expectedTokens:100000}")
+	private long expectedTokens;
+
+	@Value("${grokonez.app.revocation.falsePositiveRate:0.01}")
+	private double falsePositiveRate;
+
+	private volatile BloomFilter filter;
+
+	// Revocations made while a rebuild is running, replayed into the new filter
+	private final Queue<String> recentRevocations = new ConcurrentLinkedQueue<>();
+
+	@PostConstruct
+	public void init() {
+		rebuild();
+	}
+
+	public boolean isRevoked(String jti) {
+		if (jti == null || !filter.mightContain(jti))
+			return false;
+		return revokedTokenRepository.existsById(jti);
+	}
+
+	/*
+	 * Returns false when the token was already revoked, which lets callers
+	 * detect a refresh token being used twice.
+	 */
+	public boolean revoke(String jti, Date expiresAt) {
+		try {
+			revokedTokenRepository.insert(jti, expiresAt);
+		} catch (DataIntegrityViolationException e) {
+			return false;
+		}
+		recentRevocations.add(jti);
+		filter.add(jti);
+		return true;
+	}
+
+	@Scheduled(fixedDelayString = "${grokonez.app.revocation.rebuildMillis:60000}",
+			initialDelayString = "${grokonez.app.revocation.rebuildMillis:60000}")
+	public void rebuild() {
+		recentRevocations.clear();
+		Date now = new Date();
+		revokedTokenRepository.deleteExpired(now);
+		List<String> active = revokedTokenRepository.findActiveJtis(now);
+
+		BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, active.size() * 2L), falsePositiveRate);
+		active.forEach(rebuilt::add);
+		recentRevocations.forEach(rebuilt::add);
+		filter = rebuilt;
+		recentRevocations.forEach(rebuilt::add);
+
+		LOGGER.debug("Rebuilt token revocation filter with {} revoked tokens", active.size());
+	}
+}
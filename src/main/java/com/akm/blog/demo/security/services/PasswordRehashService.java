@@ -0,0 +1,77 @@
+package com.akm.blog.demo.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.akm.blog.demo.repository.UserRepository;
+import com.akm.blog.demo.security.BCryptCostCalibrator;
+
+/*
+ * Upgrades password hashes stored at an outdated BCrypt cost after a
+ * successful login, while the raw password is known. Runs on a single
+ * background thread; when its queue is full the upgrade is simply dropped
+ * and retried on the user's next login.
+ */
+@Service
+public class PasswordRehashService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PasswordRehashService.class);
+
+	@Autowired
+	private BCryptCostCalibrator bcryptCostCalibrator;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	private ThreadPoolExecutor executor;
+
+	private BCryptPasswordEncoder encoder;
+
+	@PostConstruct
+	public void init() {
+		encoder = new BCryptPasswordEncoder(bcryptCostCalibrator.getCost());
+		executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+				runnable -> {
+					Thread thread = new Thread(runnable, "password-rehash");
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.DiscardPolicy());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	public void rehashIfOutdated(UserPrinciple user, String rawPassword) {
+		int storedCost = BCryptCostCalibrator.costOf(user.getPassword());
+		if (storedCost < 0 || storedCost >= bcryptCostCalibrator.getCost())
+			return;
+
+		executor.execute(() -> {
+			try {
+				String newHash = encoder.encode(rawPassword);
+				// Only replaces the exact hash we verified, never a concurrently changed password
+				if (userRepository.updatePassword(user.getId(), user.getPassword(), newHash) > 0) {
+					userDetailsService.evictSnapshot(user.getUsername());
+					LOGGER.debug("Upgraded password hash of user {} from cost {}", user.getId(), storedCost);
+				}
+			} catch (Exception e) {
+				LOGGER.warn("Could not upgrade password hash of user {}: {}", user.getId(), e.getMessage());
+			}
+		});
+	}
+}
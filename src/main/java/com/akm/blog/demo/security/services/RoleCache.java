@@ -0,0 +1,50 @@
+package com.akm.blog.demo.security.services;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.akm.blog.demo.model.Role;
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.repository.RoleRepository;
+
+/*
+ * Immutable RoleName -> Role view of the roles table, loaded once at startup
+ * and swapped wholesale by reload(). The cached Role instances are detached
+ * and only used as references (e.g. for user_roles rows).
+ */
+@Component
+public class RoleCache {
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	private volatile Map<RoleName, Role> roles = Collections.emptyMap();
+
+	@PostConstruct
+	public void reload() {
+		Map<RoleName, Role> loaded = new EnumMap<>(RoleName.class);
+		for (Role role : roleRepository.findAll()) {
+			if (role.getName() != null)
+				loaded.put(role.getName(), role);
+		}
+		roles = Collections.unmodifiableMap(loaded);
+	}
+
+	public Role getRole(RoleName roleName) {
+		Role role = roles.get(roleName);
+		if (role == null) {
+			// Roles may have been inserted after startup (roles.sql, /api/auth/addRole)
+			reload();
+			role = roles.get(roleName);
+		}
+		if (role == null)
+			throw new RuntimeException("Fail! -> Cause: User Role not find.");
+		return role;
+	}
+}
@@ -1,28 +1,76 @@
 package com.akm.blog.demo.security.services;
 
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.akm.blog.demo.common.ExpiringCache;
 import com.akm.blog.demo.model.User;
 import com.akm.blog.demo.repository.UserRepository;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
 	@Autowired
 	UserRepository userRepository;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${grokonez.app.userCacheSize:10000}")
+	private int userCacheSize;
+
+	@Value("${grokonez.app.userCacheTtlSeconds:300}")
+	private long userCacheTtlSeconds;
+
+	private ExpiringCache<String, UserPrinciple> userCache;
+
+	@PostConstruct
+	public void init() {
+		userCache = new ExpiringCache<>(userCacheSize);
+
+		FunctionCounter.builder("user.cache.hits", userCache, ExpiringCache::hitCount).register(meterRegistry);
+		FunctionCounter.builder("user.cache.misses", userCache, ExpiringCache::missCount).register(meterRegistry);
+		Gauge.builder("user.cache.size", userCache, ExpiringCache::size).register(meterRegistry);
+	}
+
+	/*
+	 * Snapshots are TTL-only: nothing in this application changes a user's
+	 * roles or active flag, so a change made directly in the database is
+	 * seen here after at most userCacheTtlSeconds.
+	 */
 	@Override
-	@Transactional
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+		UserPrinciple cached = userCache.get(username);
+		if (cached != null)
+			return cached;
 
-		User user = userRepository.findByUsername(username).orElseThrow(
+		// Roles are fetched with the user in one query, outside of any open transaction
+		User user = userRepository.findOneWithAuthoritiesByUsername(username).orElseThrow(
 				() -> new UsernameNotFoundException("User Not Found with -> username or email : " + username));
 
-		return UserPrinciple.build(user);
+		UserPrinciple userPrinciple = UserPrinciple.build(user);
+		userCache.put(username, userPrinciple,
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(userCacheTtlSeconds));
+		return userPrinciple;
+	}
+
+	/*
+	 * Drops the cached snapshot after a password hash upgrade, so the next
+	 * login verifies against the new hash.
+	 */
+	public void evictSnapshot(String username) {
+		userCache.remove(username);
 	}
-}
\ No newline at end of file
+}
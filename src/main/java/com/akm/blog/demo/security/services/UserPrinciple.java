@@ -1,49 +1,62 @@
 package com.akm.blog.demo.security.services;
 
-import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.model.RoleName;
 import com.akm.blog.demo.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.Calendar;
 import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+/*
+ * Immutable snapshot of the authenticated user. Holds no entity references,
+ * so it can be cached and shared between requests.
+ */
 public class UserPrinciple implements UserDetails {
 	private static final long serialVersionUID = 1L;
 
-	private Long id;
+	private final Long id;
 
-   // private String name;
+    private final String username;
 
-    private String username;
+    @JsonIgnore
+    private final String password;
+    private final boolean active;
 
-    //private String email;
+    private final Collection<? extends GrantedAuthority> authorities;
 
+    // One bit per RoleName, see RoleName.mask()
     @JsonIgnore
-    private String password;
-    private boolean active;
-    private Calendar createdAt;
-    
-    private List<Blog> blog;
-
-    private Collection<? extends GrantedAuthority> authorities;
+    private final int roleMask;
 
     public UserPrinciple(Long id, 
-			    		String username, String password,boolean active,Calendar createdAt,
-			    		List<Blog> blog,
+			    		String username, String password,boolean active,
 			    		Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
         this.password = password;
         this.active = active;
-        this.createdAt = createdAt;
-        this.blog = blog;
-        this.authorities = authorities;
+        this.authorities = Collections.unmodifiableList(new ArrayList<>(authorities));
+        this.roleMask = roleMaskOf(authorities);
+    }
+
+    public static int roleMaskOf(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            for (RoleName roleName : RoleName.values()) {
+                if (roleName.name().equals(authority.getAuthority())) {
+                    mask |= roleName.mask();
+                    break;
+                }
+            }
+        }
+        return mask;
     }
 
     public static UserPrinciple build(User user) {
@@ -56,8 +69,6 @@ public class UserPrinciple implements UserDetails {
                 user.getUsername(),
                 user.getPassword(),
                 user.isActive(),
-                user.getCreatedAt(),
-                user.getBlog(),
                 authorities
         );
     }
@@ -70,18 +81,15 @@ public class UserPrinciple implements UserDetails {
 		return active;
 	}
 
-	public Calendar getCreatedAt() {
-		return createdAt;
-	}
-
-
-
-	public List<Blog> getBlog() {
-		return blog;
+	public int getRoleMask() {
+		return roleMask;
 	}
 
-	public void setBlog(List<Blog> blog) {
-		this.blog = blog;
+	/*
+	 * True when the user has every role in the given RoleName mask.
+	 */
+	public boolean hasRoles(int requiredMask) {
+		return (roleMask & requiredMask) == requiredMask;
 	}
 
 	@Override
@@ -116,7 +124,7 @@ public class UserPrinciple implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return active;
     }
 
     @Override
@@ -127,4 +135,9 @@ public class UserPrinciple implements UserDetails {
         UserPrinciple user = (UserPrinciple) o;
         return Objects.equals(id, user.id);
     }
-}
\ No newline at end of file
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
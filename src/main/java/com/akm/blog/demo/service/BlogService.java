@@ -1,20 +1,36 @@
 package com.akm.blog.demo.service;
 
+import java.io.OutputStream;
+import java.util.List;
+
 import org.springframework.data.domain.Pageable;
 
 import com.akm.blog.demo.DTO.BlogDTO;
+import com.akm.blog.demo.common.CommonResponse;
 import com.akm.blog.demo.model.User;
 
 public interface BlogService {
 
 	
-	public String getBlogs(Pageable pageable) throws Exception;
+	public CommonResponse getBlogs(Pageable pageable) throws Exception;
+
+	public CommonResponse getBlogsByCursor(String cursor, Integer size) throws Exception;
+
+	public CommonResponse searchBlogs(String query, Integer size) throws Exception;
+
+	public void exportBlogs(OutputStream out) throws Exception;
 
 	public User getLoggedInUserBean() throws Exception;
 
-	public String createBlog(BlogDTO blogBean) throws Exception;
+	public Long getLoggedInUserId() throws Exception;
+
+	public CommonResponse createBlog(BlogDTO blogBean) throws Exception;
+
+	public CommonResponse createBlogs(List<BlogDTO> blogBeans) throws Exception;
+
+	public CommonResponse deleteBlogs(List<Long> ids) throws Exception;
 
-	public String editBlog(BlogDTO blogBean, Long id) throws Exception;
+	public CommonResponse editBlog(BlogDTO blogBean, Long id, Long expectedVersion) throws Exception;
 
 
 }
@@ -0,0 +1,11 @@
+package com.akm.blog.demo.service;
+
+import java.io.InputStream;
+
+import com.akm.blog.demo.common.CommonResponse;
+
+public interface UserImportService {
+
+	public CommonResponse importUsers(InputStream input, boolean ndjson) throws Exception;
+
+}
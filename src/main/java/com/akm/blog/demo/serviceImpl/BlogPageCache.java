@@ -0,0 +1,130 @@
+package com.akm.blog.demo.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.ExpiringCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Caches the first getBlogs page of each user, per page size and sort, so
+ * the usual "list my blogs right after login" request does not reach the
+ * database. Later pages are always read from the database.
+ *
+ * Writes invalidate the user's pages once they commit. A load that started
+ * before an invalidation is returned to its caller but not cached, so a
+ * page read before a write can never be served after it.
+ */
+@Component
+public class BlogPageCache {
+
+	private static final int MAX_PAGES_PER_USER = 4;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${grokonez.app.blogPageCacheSize:10000}")
+	private int blogPageCacheSize;
+
+	@Value("${grokonez.app.blogPageCacheTtlSeconds:60}")
+	private long blogPageCacheTtlSeconds;
+
+	private ExpiringCache<Long, ConcurrentHashMap<String, List<BlogSummaryDTO>>> pageCache;
+
+	// user id -> clock value of the user's last invalidation
+	private ExpiringCache<Long, Long> invalidations;
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	@PostConstruct
+	public void init() {
+		pageCache = new ExpiringCache<>(blogPageCacheSize);
+		invalidations = new ExpiringCache<>(blogPageCacheSize);
+
+		FunctionCounter.builder("blog.page.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+		FunctionCounter.builder("blog.page.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+		Gauge.builder("blog.page.cache.size", pageCache, ExpiringCache::size).register(meterRegistry);
+	}
+
+	public List<BlogSummaryDTO> getOrLoad(Long userId, Pageable pageable, Supplier<List<BlogSummaryDTO>> loader) {
+		if (pageable.getPageNumber() != 0)
+			return loader.get();
+
+		String spec = pageable.getPageSize() + ":" + pageable.getSort();
+		long ticket = clock.get();
+		ConcurrentHashMap<String, List<BlogSummaryDTO>> pages = pageCache.get(userId);
+		List<BlogSummaryDTO> page = pages == null ? null : pages.get(spec);
+		if (page != null) {
+			hits.increment();
+			return page;
+		}
+		misses.increment();
+
+		page = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+		store(userId, spec, page, ticket);
+		return page;
+	}
+
+	/*
+	 * Drops the user's cached pages right after the current transaction
+	 * commits, still on the writing request's thread.
+	 */
+	public void invalidateAfterCommit(Long userId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidate(userId);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				invalidate(userId);
+			}
+		});
+	}
+
+	public synchronized void invalidate(Long userId) {
+		invalidations.put(userId, clock.incrementAndGet(), expiresAt());
+		pageCache.remove(userId);
+	}
+
+	private synchronized void store(Long userId, String spec, List<BlogSummaryDTO> page, long ticket) {
+		Long invalidatedAt = invalidations.get(userId);
+		if (invalidatedAt != null && invalidatedAt > ticket)
+			return;
+		ConcurrentHashMap<String, List<BlogSummaryDTO>> pages = pageCache.get(userId);
+		if (pages == null) {
+			pages = new ConcurrentHashMap<>();
+			pageCache.put(userId, pages, expiresAt());
+		} else if (pages.size() >= MAX_PAGES_PER_USER && !pages.containsKey(spec)) {
+			pages.clear();
+		}
+		pages.put(spec, page);
+	}
+
+	private long expiresAt() {
+		return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(blogPageCacheTtlSeconds);
+	}
+}
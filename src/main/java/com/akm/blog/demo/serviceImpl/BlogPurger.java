@@ -0,0 +1,90 @@
+package com.akm.blog.demo.serviceImpl;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import com.akm.blog.demo.repository.BlogRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Physically removes tombstoned blogs off-peak. Rows go in small batches,
+ * each its own short transaction with a pause in between, so even a mass
+ * delete never holds many row locks at once or saturates the database;
+ * whatever is left over is picked up by the next run. It runs on a
+ * scheduler thread of its own, so the pauses never delay the app's
+ * other @Scheduled tasks.
+ */
+@Component
+public class BlogPurger {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlogPurger.class);
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${grokonez.app.blogPurge.cron:0 */10 1-5 * * *}")
+	private String cron;
+
+	@Value("${grokonez.app.blogPurge.batchSize:500}")
+	private int batchSize;
+
+	@Value("${grokonez.app.blogPurge.pauseMillis:200}")
+	private long pauseMillis;
+
+	@Value("${grokonez.app.blogPurge.maxBatchesPerRun:50}")
+	private int maxBatchesPerRun;
+
+	private Counter purgedCounter;
+
+	private ThreadPoolTaskScheduler scheduler;
+
+	@PostConstruct
+	public void init() {
+		purgedCounter = Counter.builder("blog.purge.rows").register(meterRegistry);
+
+		scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(1);
+		scheduler.setThreadNamePrefix("blog-purge-");
+		scheduler.setDaemon(true);
+		scheduler.initialize();
+		scheduler.schedule(this::purge, new CronTrigger(cron));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdown();
+	}
+
+	public void purge() {
+		long purged = 0;
+		try {
+			for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+				int deleted = blogRepository.purgeDeleted(batchSize);
+				purged += deleted;
+				purgedCounter.increment(deleted);
+				if (deleted < batchSize)
+					break;
+				Thread.sleep(pauseMillis);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			LOGGER.warn("Purging deleted blogs failed after {} rows: {}", purged, e.getMessage());
+		}
+		if (purged > 0)
+			LOGGER.info("Purged {} deleted blogs", purged);
+	}
+}
@@ -1,26 +1,43 @@
 package com.akm.blog.demo.serviceImpl;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import com.akm.blog.demo.common.BlogCursor;
 import com.akm.blog.demo.common.CommonResponse;
 import com.akm.blog.demo.DTO.BlogDTO;
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
 import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.ETags;
+import com.akm.blog.demo.common.InvalidCursorException;
+import com.akm.blog.demo.common.NotFoundException;
+import com.akm.blog.demo.common.PreconditionFailedException;
 import com.akm.blog.demo.model.Blog;
 import com.akm.blog.demo.model.User;
 import com.akm.blog.demo.repository.BlogRepository;
 import com.akm.blog.demo.repository.RoleRepository;
 import com.akm.blog.demo.repository.UserRepository;
+import com.akm.blog.demo.search.BlogSearchIndex;
 import com.akm.blog.demo.security.SecurityUtils;
 import com.akm.blog.demo.service.BlogService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 
@@ -28,8 +45,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class BlogServiceImpl implements BlogService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(BlogServiceImpl.class);
-	private static final ObjectMapper MAPPER = new ObjectMapper();
 	private static final String MESSAGE = "message";
+	private static final String NEXT_CURSOR = "next_cursor";
+	private static final String VERSION = "version";
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	private static final int MAX_PAGE_SIZE = 100;
 
 
 	@Autowired
@@ -44,35 +64,45 @@ public class BlogServiceImpl implements BlogService {
 	@Autowired
 	RoleRepository roleRepository;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BlogSearchIndex blogSearchIndex;
+
+	@Autowired
+	private BlogPageCache blogPageCache;
+
+	@Value("${grokonez.app.blogBatchMaxSize}")
+	private int blogBatchMaxSize;
+
 	@Override
-	public String createBlog(BlogDTO blogBean) throws Exception {
+	@Transactional
+	public CommonResponse createBlog(BlogDTO blogBean) throws Exception {
 		LOGGER.trace("Starting createBlog() from BlogServiceImpl");
-		String returnValue = null;
 		String errorMsg = null;
 		CommonResponse dashboardResponse = new CommonResponse();
 		try {
 
-			User loggedUser = blogService.getLoggedInUserBean();
+			Long loggedUserId = blogService.getLoggedInUserId();
 
-			if(loggedUser ==  null)
-				throw new RuntimeException("Invalid User");
-
-			List<Blog> blogList = new ArrayList<>();
+			Blog savedBlog = null;
 
 			if(blogBean != null) {
 				Blog blog = new Blog();
 				blog.setName(blogBean.getName() != null ? blogBean.getName() : null);
 				blog.setDescription(blogBean.getDescription() != null ? blogBean.getDescription() : null);
-				blog.setUser(loggedUser);
-				Blog savedBlog = blogRepository.save(blog);
-				blogList.add(savedBlog);
-
-				loggedUser.setBlog(blogList);
+				// Reference proxy, only the foreign key is needed
+				blog.setUser(this.userRepo.getOne(loggedUserId));
+				// Flush here so constraint errors surface inside the try block
+				savedBlog = blogRepository.save(blog);
+				blogRepository.flush();
+				blogSearchIndex.indexAfterCommit(loggedUserId, savedBlog);
+				blogPageCache.invalidateAfterCommit(loggedUserId);
 			}
-			User savedUser = this.userRepo.save(loggedUser);
 
-			LOGGER.trace("USER_BLOG:: "+blogList);
-			if(savedUser != null) {
+			LOGGER.trace("USER_BLOG:: "+savedBlog);
+			if(savedBlog != null) {
 				dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
 				dashboardResponse.setResponseData(MESSAGE, "Blog created");
 			}
@@ -80,51 +110,157 @@ public class BlogServiceImpl implements BlogService {
 			errorMsg = e.getMessage();
 			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
 			e.printStackTrace();
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
 		}
 		if(errorMsg != null){
 			dashboardResponse.setStatusCode(CommonConstants.FAIL);
 			dashboardResponse.setErrorMsg(errorMsg);
 		}
-		returnValue = MAPPER.writeValueAsString(dashboardResponse);
-		LOGGER.trace("Exiting createBlog() from BlogServiceImpl with return:: returnValue: "+returnValue);
-		return returnValue;
+		LOGGER.trace("Exiting createBlog() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
 	}
 
 
+	/*
+	 * Persists all blogs in one transaction; with the pooled id generator
+	 * and hibernate.jdbc.batch_size the inserts go out in batches instead
+	 * of one round trip per blog. Any failure rolls the whole batch back.
+	 */
 	@Override
-	public String editBlog(BlogDTO blogBean, Long id) throws Exception {
-		LOGGER.trace("Starting editBlog() from BlogServiceImpl");
-		String returnValue = null;
+	@Transactional
+	public CommonResponse createBlogs(List<BlogDTO> blogBeans) throws Exception {
+		LOGGER.trace("Starting createBlogs() from BlogServiceImpl");
 		String errorMsg = null;
 		CommonResponse dashboardResponse = new CommonResponse();
 		try {
+			if(blogBeans == null || blogBeans.isEmpty()) {
+				errorMsg = "No blogs given";
+			} else if(blogBeans.size() > blogBatchMaxSize) {
+				errorMsg = "At most " + blogBatchMaxSize + " blogs can be created at once";
+			} else {
+				Long loggedUserId = blogService.getLoggedInUserId();
+				// Reference proxy, only the foreign key is needed
+				User user = this.userRepo.getOne(loggedUserId);
+
+				List<Blog> blogs = new ArrayList<>(blogBeans.size());
+				for(BlogDTO blogBean : blogBeans) {
+					if(blogBean == null)
+						continue;
+					Blog blog = new Blog();
+					blog.setName(blogBean.getName());
+					blog.setDescription(blogBean.getDescription());
+					blog.setUser(user);
+					blogs.add(blog);
+				}
+				// Flush here so constraint errors surface inside the try block
+				blogRepository.saveAll(blogs);
+				blogRepository.flush();
+				for(Blog blog : blogs)
+					blogSearchIndex.indexAfterCommit(loggedUserId, blog);
+				blogPageCache.invalidateAfterCommit(loggedUserId);
 
-			User loggedUser = blogService.getLoggedInUserBean();
+				dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
+				dashboardResponse.setResponseData(MESSAGE, blogs.size() + " blogs created");
+			}
+		} catch (Exception e) {
+			errorMsg = e.getMessage();
+			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
+			e.printStackTrace();
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+		}
+		if(errorMsg != null){
+			dashboardResponse.setStatusCode(CommonConstants.FAIL);
+			dashboardResponse.setErrorMsg(errorMsg);
+		}
+		LOGGER.trace("Exiting createBlogs() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
+	}
+
+
+	/*
+	 * Bulk delete: one UPDATE tombstones all of the caller's blogs among the
+	 * given ids; foreign or unknown ids are ignored. BlogPurger removes the
+	 * rows later, off-peak.
+	 */
+	@Override
+	@Transactional
+	public CommonResponse deleteBlogs(List<Long> ids) throws Exception {
+		LOGGER.trace("Starting deleteBlogs() from BlogServiceImpl");
+		String errorMsg = null;
+		CommonResponse dashboardResponse = new CommonResponse();
+		try {
+			if(ids == null || ids.isEmpty()) {
+				errorMsg = "No blogs given";
+			} else if(ids.size() > blogBatchMaxSize) {
+				errorMsg = "At most " + blogBatchMaxSize + " blogs can be deleted at once";
+			} else {
+				Long loggedUserId = blogService.getLoggedInUserId();
+				Set<Long> blogIds = new HashSet<>(ids);
+				blogIds.remove(null);
+
+				int deleted = this.blogRepository.markDeleted(loggedUserId, blogIds);
+				if(deleted > 0) {
+					blogSearchIndex.removeAfterCommit(loggedUserId, blogIds);
+					blogPageCache.invalidateAfterCommit(loggedUserId);
+				}
 
-			if(loggedUser ==  null)
-				throw new RuntimeException("Invalid User");
+				dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
+				dashboardResponse.setResponseData(MESSAGE, deleted + " blogs deleted");
+			}
+		} catch (Exception e) {
+			errorMsg = e.getMessage();
+			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
+			e.printStackTrace();
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+		}
+		if(errorMsg != null){
+			dashboardResponse.setStatusCode(CommonConstants.FAIL);
+			dashboardResponse.setErrorMsg(errorMsg);
+		}
+		LOGGER.trace("Exiting deleteBlogs() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
+	}
 
-			List<Blog> blogList = new ArrayList<>();
 
-			if(blogBean != null) {
-				Blog blog = this.blogRepository.findById(id).orElseThrow(() -> new RuntimeException("No blog found for given ID"));
+	/*
+	 * Partial update: only the fields the client sent are written, in one
+	 * UPDATE whose WHERE clause enforces ownership (and the If-Match
+	 * version when given), without loading the blog first. The response
+	 * always carries the new version as its ETag.
+	 */
+	@Override
+	@Transactional
+	public CommonResponse editBlog(BlogDTO blogBean, Long id, Long expectedVersion) throws Exception {
+		LOGGER.trace("Starting editBlog() from BlogServiceImpl");
+		String errorMsg = null;
+		CommonResponse dashboardResponse = new CommonResponse();
+		try {
 
-				//Blog blog = this.blogRepository.findById(id).get();
-				blog.setName(blogBean.getName() != null ? blogBean.getName() : null);
-				blog.setDescription(blogBean.getDescription() != null ? blogBean.getDescription() : null);
-				blog.setUser(loggedUser);
-				Blog savedBlog = blogRepository.save(blog);
-				blogList.add(savedBlog);
+			Long loggedUserId = blogService.getLoggedInUserId();
+
+			if(blogBean == null || (blogBean.getName() == null && blogBean.getDescription() == null)) {
+				errorMsg = "Nothing to update";
+			} else {
+				Long newVersion = this.blogRepository.updateFields(id, loggedUserId, blogBean.getName(),
+						blogBean.getDescription(), expectedVersion);
+				if(newVersion == null) {
+					// Only on failure: tell a stale If-Match apart from a missing or foreign blog
+					if(expectedVersion != null && this.blogRepository.existsByIdAndUserIdAndDeletedFalse(id, loggedUserId))
+						throw new PreconditionFailedException("Blog " + id + " is not at version " + expectedVersion);
+					throw new NotFoundException("No blog found for given ID");
+				}
 
-				loggedUser.setBlog(blogList);
-			}
-			User savedUser = this.userRepo.save(loggedUser);
+				blogSearchIndex.updateAfterCommit(loggedUserId, id, blogBean.getName(), blogBean.getDescription(),
+						newVersion);
+				blogPageCache.invalidateAfterCommit(loggedUserId);
 
-			LOGGER.trace("USER_EDUCATION:: "+blogList);
-			if(savedUser != null) {
 				dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
 				dashboardResponse.setResponseData(MESSAGE, "Blog edited");
+				dashboardResponse.setResponseData(VERSION, newVersion);
+				dashboardResponse.setEntityTag(ETags.forVersion(newVersion));
 			}
+		} catch (PreconditionFailedException | NotFoundException e) {
+			throw e;
 		} catch (Exception e) {
 			errorMsg = e.getMessage();
 			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
@@ -134,45 +270,118 @@ public class BlogServiceImpl implements BlogService {
 			dashboardResponse.setStatusCode(CommonConstants.FAIL);
 			dashboardResponse.setErrorMsg(errorMsg);
 		}
-		returnValue = MAPPER.writeValueAsString(dashboardResponse);
-		LOGGER.trace("Exiting editBlog() from BlogServiceImpl with return:: returnValue: "+returnValue);
-		return returnValue;
+		LOGGER.trace("Exiting editBlog() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
 	}
 
 
 
+	/*
+	 * Not @Transactional: a cache hit must not open a transaction, which
+	 * would borrow a connection; the repository call runs in its own
+	 * read-only one on a miss.
+	 */
 	@Override
-	public String getBlogs(Pageable pageable) throws Exception {
+	public CommonResponse getBlogs(Pageable pageable) throws Exception {
 		LOGGER.trace("Starting getBlog() from BlogServiceImpl");
-		String returnValue = null;
 		String errorMsg = null;
 		CommonResponse dashboardResponse = new CommonResponse();
 		try {
 
-			User loggedUser = blogService.getLoggedInUserBean();
+			Long loggedUserId = blogService.getLoggedInUserId();
 
-			if(loggedUser ==  null)
-				throw new RuntimeException("Invalid User");
+			List<BlogSummaryDTO> blogList = blogPageCache.getOrLoad(loggedUserId, pageable,
+					() -> this.blogRepository.findSummariesByUserId(loggedUserId, pageable).getContent());
 
-			Page<Blog> blogs = this.blogRepository.findAllByUser(loggedUser, pageable);
+			LOGGER.trace("BLOG_LIST:: "+blogList);
+			if(!blogList.isEmpty()) {
+				dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
+				dashboardResponse.setResponseData(MESSAGE, blogList);
+			}
+			dashboardResponse.setEntityTag(ETags.forBlogs(blogList, null));
+		} catch (Exception e) {
+			errorMsg = e.getMessage();
+			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
+			e.printStackTrace();
+		}
+		if(errorMsg != null){
+			dashboardResponse.setStatusCode(CommonConstants.FAIL);
+			dashboardResponse.setErrorMsg(errorMsg);
+		}
+		LOGGER.trace("Exiting getBlog() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
+	}
 
-			List<BlogDTO> blogList = new ArrayList<>();
 
-			if(blogs != null ) {
-				for(Blog blog : blogs) {
-					BlogDTO blogBean = new BlogDTO();
-					blogBean.setId(blog.getId());
-					if(blog.getName() != null)
-						blogBean.setName(blog.getName());
-					if(blog.getDescription() != null)
-						blogBean.setDescription(blog.getDescription());
+	@Override
+	@Transactional(readOnly = true)
+	public CommonResponse getBlogsByCursor(String cursor, Integer size) throws Exception {
+		LOGGER.trace("Starting getBlogsByCursor() from BlogServiceImpl");
+		String errorMsg = null;
+		CommonResponse dashboardResponse = new CommonResponse();
+		try {
 
-					blogList.add(blogBean);
-				}
+			Long loggedUserId = blogService.getLoggedInUserId();
+
+			int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+			// One extra row tells whether a next page exists, without a count query
+			Pageable limit = PageRequest.of(0, pageSize + 1);
+
+			List<BlogSummaryDTO> blogs;
+			if(cursor == null || cursor.isEmpty()) {
+				blogs = this.blogRepository.findFirstSummaries(loggedUserId, limit);
+			} else {
+				BlogCursor position = BlogCursor.decode(cursor);
+				blogs = this.blogRepository.findSummariesAfter(loggedUserId, position.getCreatedAt(), position.getId(), limit);
 			}
 
-			LOGGER.trace("BLOG_LIST:: "+blogList);
-			if(!blogList.isEmpty()) {
+			boolean hasNext = blogs.size() > pageSize;
+			List<BlogSummaryDTO> blogList = hasNext ? blogs.subList(0, pageSize) : blogs;
+
+			dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
+			dashboardResponse.setResponseData(MESSAGE, blogList);
+			String nextCursor = null;
+			if(hasNext) {
+				BlogSummaryDTO last = blogs.get(pageSize - 1);
+				nextCursor = new BlogCursor(last.getCreatedAt(), last.getId()).encode();
+				dashboardResponse.setResponseData(NEXT_CURSOR, nextCursor);
+			}
+			dashboardResponse.setEntityTag(ETags.forBlogs(blogList, nextCursor));
+		} catch (InvalidCursorException e) {
+			throw e;
+		} catch (Exception e) {
+			errorMsg = e.getMessage();
+			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
+			e.printStackTrace();
+		}
+		if(errorMsg != null){
+			dashboardResponse.setStatusCode(CommonConstants.FAIL);
+			dashboardResponse.setErrorMsg(errorMsg);
+		}
+		LOGGER.trace("Exiting getBlogsByCursor() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
+	}
+
+
+	/*
+	 * Ranked term search over the logged in user's blogs, answered from the
+	 * in-memory index instead of LIKE scans on the blog table.
+	 */
+	@Override
+	public CommonResponse searchBlogs(String query, Integer size) throws Exception {
+		LOGGER.trace("Starting searchBlogs() from BlogServiceImpl");
+		String errorMsg = null;
+		CommonResponse dashboardResponse = new CommonResponse();
+		try {
+			if(query == null || query.trim().isEmpty()) {
+				errorMsg = "Search query is required";
+			} else {
+				Long loggedUserId = blogService.getLoggedInUserId();
+				int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+				List<BlogSummaryDTO> blogList = blogSearchIndex.search(loggedUserId, query, limit);
+
+				LOGGER.trace("BLOG_SEARCH:: "+blogList.size()+" hits, index ready: "+blogSearchIndex.isReady());
 				dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
 				dashboardResponse.setResponseData(MESSAGE, blogList);
 			}
@@ -185,9 +394,42 @@ public class BlogServiceImpl implements BlogService {
 			dashboardResponse.setStatusCode(CommonConstants.FAIL);
 			dashboardResponse.setErrorMsg(errorMsg);
 		}
-		returnValue = MAPPER.writeValueAsString(dashboardResponse);
-		LOGGER.trace("Exiting getBlog() from BlogServiceImpl with return:: returnValue: "+returnValue);
-		return returnValue;
+		LOGGER.trace("Exiting searchBlogs() from BlogServiceImpl with status:: " + dashboardResponse.getStatusCode());
+		return dashboardResponse;
+	}
+
+
+	/*
+	 * Writes one JSON object per line straight to the response stream while
+	 * rows are read from the database cursor, so memory use does not depend
+	 * on how many blogs the user has.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void exportBlogs(OutputStream out) throws Exception {
+		LOGGER.trace("Starting exportBlogs() from BlogServiceImpl");
+		Long loggedUserId = blogService.getLoggedInUserId();
+		long count = 0;
+		try (Stream<BlogSummaryDTO> blogs = this.blogRepository.streamSummariesByUserId(loggedUserId);
+				JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+			generator.setRootValueSeparator(null);
+			Iterator<BlogSummaryDTO> it = blogs.iterator();
+			while(it.hasNext()) {
+				BlogSummaryDTO blog = it.next();
+				generator.writeStartObject();
+				generator.writeNumberField("id", blog.getId());
+				generator.writeStringField("name", blog.getName());
+				generator.writeStringField("description", blog.getDescription());
+				if(blog.getCreatedAt() != null)
+					generator.writeNumberField("created_at", blog.getCreatedAt().getTimeInMillis());
+				if(blog.getVersion() != null)
+					generator.writeNumberField("version", blog.getVersion());
+				generator.writeEndObject();
+				generator.writeRaw('\n');
+				count++;
+			}
+		}
+		LOGGER.trace("Exiting exportBlogs() from BlogServiceImpl with rows:: " + count);
 	}
 
 
@@ -197,6 +439,13 @@ public class BlogServiceImpl implements BlogService {
 				.orElseThrow(() -> new RuntimeException("Account not found"));
 		return user;
 	}
+
+	@Override
+	public Long getLoggedInUserId() throws Exception {
+		return SecurityUtils.getCurrentUserId()
+				.orElseThrow(() -> new RuntimeException("Account not found"));
+	}
+
 	public Optional<User> getUserWithAuthorities() {
 		return SecurityUtils.getCurrentUserLogin().flatMap(userRepo::findOneWithAuthoritiesByUsername);
 	}
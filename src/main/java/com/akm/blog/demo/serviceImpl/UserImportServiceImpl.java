@@ -0,0 +1,341 @@
+package com.akm.blog.demo.serviceImpl;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.security.BCryptCostCalibrator;
+import com.akm.blog.demo.security.PasswordHashingExecutor;
+import com.akm.blog.demo.security.PasswordHashingRejectedException;
+import com.akm.blog.demo.security.services.RoleCache;
+import com.akm.blog.demo.service.UserImportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Streams a CSV (username,password) or NDJSON ({"username":..,"password":..})
+ * upload in chunks. Each chunk is validated, checked against existing
+ * usernames with a single query, hashed on the shared PasswordHashingExecutor
+ * (within its bulk share) and written with JDBC batch inserts. Bad rows are
+ * reported individually and never abort the import.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UserImportServiceImpl.class);
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final String MESSAGE = "message";
+	private static final int MAX_REPORTED_FAILURES = 1000;
+
+	private static final String INSERT_USER =
+			"insert into users (username, password, active, created_at) values (?, ?, ?, ?)";
+	private static final String INSERT_USER_ROLES =
+			"insert into user_roles (user_id, role_id) select u.id, :roleId from users u where u.username in (:usernames)";
+	private static final String INSERT_USER_ROLE = "insert into user_roles (user_id, role_id) values (?, ?)";
+	private static final String EXISTING_USERNAMES = "select username from users where username in (:usernames)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private RoleCache roleCache;
+
+	@Autowired
+	private BCryptCostCalibrator bcryptCostCalibrator;
+
+	@Autowired
+	private PasswordHashingExecutor passwordHashingExecutor;
+
+	@Value("${grokonez.app.userImport.chunkSize:500}")
+	private int chunkSize;
+
+	@Value("${grokonez.app.userImport.hashingRetries:5}")
+	private int hashingRetries;
+
+	@Value("${grokonez.app.userImport.hashingBackoffMillis:200}")
+	private long hashingBackoffMillis;
+
+	private BCryptPasswordEncoder encoder;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	public void init() {
+		encoder = new BCryptPasswordEncoder(bcryptCostCalibrator.getCost());
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public CommonResponse importUsers(InputStream input, boolean ndjson) throws Exception {
+		LOGGER.trace("Starting importUsers() from UserImportServiceImpl");
+		String errorMsg = null;
+		CommonResponse dashboardResponse = new CommonResponse();
+		ImportResult result = new ImportResult();
+		try {
+			Long roleId = roleCache.getRole(RoleName.ROLE_USER).getId();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+			List<ImportRow> chunk = new ArrayList<>(chunkSize);
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.trim().isEmpty() || (!ndjson && lineNumber == 1 && isCsvHeader(line)))
+					continue;
+
+				ImportRow row = ndjson ? parseNdjson(lineNumber, line) : parseCsv(lineNumber, line);
+				if (row.reason != null) {
+					result.fail(row);
+					continue;
+				}
+				chunk.add(row);
+				if (chunk.size() >= chunkSize) {
+					importChunk(chunk, roleId, result);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty())
+				importChunk(chunk, roleId, result);
+
+			dashboardResponse.setStatusCode(CommonConstants.SUCCESS);
+			dashboardResponse.setResponseData("imported", result.imported);
+			dashboardResponse.setResponseData("failed", result.failed);
+			dashboardResponse.setResponseData("failures", result.failures);
+			dashboardResponse.setResponseData(MESSAGE, "Users imported");
+		} catch (Exception e) {
+			errorMsg = e.getMessage();
+			LOGGER.error(errorMsg + "\n\r : "+ e.getStackTrace());
+			e.printStackTrace();
+		}
+		if(errorMsg != null){
+			dashboardResponse.setStatusCode(CommonConstants.FAIL);
+			dashboardResponse.setErrorMsg(errorMsg);
+			dashboardResponse.setResponseData("imported", result.imported);
+		}
+		LOGGER.trace("Exiting importUsers() from UserImportServiceImpl with imported: " + result.imported
+				+ ", failed: " + result.failed);
+		return dashboardResponse;
+	}
+
+	private void importChunk(List<ImportRow> chunk, Long roleId, ImportResult result) throws Exception {
+		List<ImportRow> candidates = new ArrayList<>(chunk.size());
+		Set<String> seen = new HashSet<>();
+		for (ImportRow row : chunk) {
+			if (!seen.add(row.username)) {
+				result.fail(row.failed("Duplicate username in import"));
+			} else {
+				candidates.add(row);
+			}
+		}
+
+		Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_USERNAMES,
+				new MapSqlParameterSource("usernames", seen), String.class));
+		candidates.removeIf(row -> {
+			if (existing.contains(row.username)) {
+				result.fail(row.failed("Username is already taken"));
+				return true;
+			}
+			return false;
+		});
+		if (candidates.isEmpty())
+			return;
+
+		// Shares the signin hashing pool, capped so logins keep part of it
+		List<Callable<String>> hashing = new ArrayList<>(candidates.size());
+		for (ImportRow row : candidates)
+			hashing.add(() -> encoder.encode(row.password));
+		List<String> hashes = hashWithBackoff(hashing);
+		if (hashes == null) {
+			for (ImportRow row : candidates)
+				result.fail(row.failed("Password hashing is busy, retry later"));
+			return;
+		}
+		for (int i = 0; i < candidates.size(); i++)
+			candidates.get(i).hash = hashes.get(i);
+
+		try {
+			transactionTemplate.execute(status -> {
+				insertBatch(candidates, roleId);
+				return null;
+			});
+			result.imported += candidates.size();
+		} catch (DataAccessException e) {
+			// A concurrent signup took one of the names: retry row by row to isolate it
+			LOGGER.debug("Batch insert failed, falling back to single inserts: {}", e.getMessage());
+			for (ImportRow row : candidates) {
+				try {
+					transactionTemplate.execute(status -> {
+						insertSingle(row, roleId);
+						return null;
+					});
+					result.imported++;
+				} catch (DataIntegrityViolationException rowError) {
+					result.fail(row.failed("Username is already taken"));
+				} catch (DataAccessException rowError) {
+					result.fail(row.failed(rowError.getMostSpecificCause().getMessage()));
+				}
+			}
+		}
+	}
+
+	/*
+	 * A full hashing queue means signins are busy: back off and retry the
+	 * chunk, and give up on it (null) after hashingRetries attempts without
+	 * aborting the rest of the import.
+	 */
+	private List<String> hashWithBackoff(List<Callable<String>> hashing) throws InterruptedException {
+		long backoffMillis = hashingBackoffMillis;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return passwordHashingExecutor.executeAll(hashing);
+			} catch (PasswordHashingRejectedException e) {
+				if (attempt >= hashingRetries) {
+					LOGGER.warn("Password hashing still busy after {} attempts, skipping {} rows", attempt,
+							hashing.size());
+					return null;
+				}
+				Thread.sleep(backoffMillis);
+				backoffMillis *= 2;
+			}
+		}
+	}
+
+	private void insertBatch(List<ImportRow> rows, Long roleId) {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		List<Object[]> args = new ArrayList<>(rows.size());
+		List<String> usernames = new ArrayList<>(rows.size());
+		for (ImportRow row : rows) {
+			args.add(new Object[] { row.username, row.hash, Boolean.TRUE, now });
+			usernames.add(row.username);
+		}
+		jdbcTemplate.batchUpdate(INSERT_USER, args);
+		namedJdbcTemplate.update(INSERT_USER_ROLES,
+				new MapSqlParameterSource("roleId", roleId).addValue("usernames", usernames));
+	}
+
+	private void insertSingle(ImportRow row, Long roleId) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement ps = connection.prepareStatement(INSERT_USER, new String[] { "id" });
+			ps.setString(1, row.username);
+			ps.setString(2, row.hash);
+			ps.setBoolean(3, true);
+			ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+			return ps;
+		}, keyHolder);
+		jdbcTemplate.update(INSERT_USER_ROLE, keyHolder.getKey().longValue(), roleId);
+	}
+
+	private static boolean isCsvHeader(String line) {
+		return line.trim().toLowerCase(Locale.ROOT).startsWith("username,");
+	}
+
+	private static ImportRow parseCsv(int lineNumber, String line) {
+		int comma = line.indexOf(',');
+		if (comma < 0)
+			return new ImportRow(lineNumber, line.trim(), null).failed("Expected username,password");
+		return validate(new ImportRow(lineNumber, line.substring(0, comma).trim(), line.substring(comma + 1)));
+	}
+
+	private static ImportRow parseNdjson(int lineNumber, String line) {
+		try {
+			JsonNode node = MAPPER.readTree(line);
+			return validate(new ImportRow(lineNumber, node.path("username").asText(null),
+					node.path("password").asText(null)));
+		} catch (Exception e) {
+			return new ImportRow(lineNumber, null, null).failed("Malformed JSON");
+		}
+	}
+
+	// Same limits as SignUpForm
+	private static ImportRow validate(ImportRow row) {
+		if (row.username == null || row.username.trim().length() < 3 || row.username.length() > 50)
+			return row.failed("Username must be 3 to 50 characters");
+		if (row.password == null || row.password.trim().isEmpty() || row.password.length() < 3
+				|| row.password.length() > 40)
+			return row.failed("Password must be 3 to 40 characters");
+		return row;
+	}
+
+	private static final class ImportRow {
+
+		private final int line;
+
+		private final String username;
+
+		private final String password;
+
+		private String hash;
+
+		private String reason;
+
+		ImportRow(int line, String username, String password) {
+			this.line = line;
+			this.username = username;
+			this.password = password;
+		}
+
+		ImportRow failed(String reason) {
+			this.reason = reason;
+			return this;
+		}
+	}
+
+	private static final class ImportResult {
+
+		private int imported;
+
+		private int failed;
+
+		private final List<Map<String, Object>> failures = new ArrayList<>();
+
+		void fail(ImportRow row) {
+			failed++;
+			if (failures.size() < MAX_REPORTED_FAILURES) {
+				Map<String, Object> failure = new LinkedHashMap<>();
+				failure.put("line", row.line);
+				failure.put("username", row.username);
+				failure.put("reason", row.reason);
+				failures.add(failure);
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.akm.blog.demo.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Calendar;
+
+import org.junit.Test;
+
+/*
+ * Cursors must round-trip the exact sort key and refuse anything that is
+ * not one of their own tokens.
+ */
+public class BlogCursorTest {
+
+	@Test
+	public void decodeReturnsTheEncodedPosition() {
+		Calendar createdAt = Calendar.getInstance();
+		createdAt.setTimeInMillis(1539000000123L);
+
+		BlogCursor cursor = BlogCursor.decode(new BlogCursor(createdAt, 42L).encode());
+
+		assertEquals(1539000000123L, cursor.getCreatedAt().getTimeInMillis());
+		assertEquals(42L, cursor.getId());
+	}
+
+	@Test
+	public void tokensAreUrlSafe() {
+		Calendar createdAt = Calendar.getInstance();
+		createdAt.setTimeInMillis(Long.MAX_VALUE);
+
+		String token = new BlogCursor(createdAt, Long.MAX_VALUE).encode();
+
+		assertFalse(token.matches(".*[+/=].*"));
+	}
+
+	@Test(expected = InvalidCursorException.class)
+	public void garbageIsRejected() {
+		BlogCursor.decode("not a cursor!");
+	}
+
+	@Test(expected = InvalidCursorException.class)
+	public void tokenWithoutSeparatorIsRejected() {
+		BlogCursor.decode(encode("1539000000123"));
+	}
+
+	@Test(expected = InvalidCursorException.class)
+	public void tokenWithNonNumericKeyIsRejected() {
+		BlogCursor.decode(encode("1539000000123:42 or 1=1"));
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+	}
+}
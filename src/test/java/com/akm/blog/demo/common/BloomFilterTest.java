@@ -0,0 +1,56 @@
+package com.akm.blog.demo.common;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/*
+ * No false negatives ever, and false positives near the rate the filter
+ * was sized for.
+ */
+public class BloomFilterTest {
+
+	@Test
+	public void addedValuesAreAlwaysFound() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++)
+			filter.add("jti-" + i);
+
+		for (int i = 0; i < 10_000; i++)
+			assertTrue(filter.mightContain("jti-" + i));
+	}
+
+	@Test
+	public void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(100, 0.01);
+
+		assertFalse(filter.mightContain("jti"));
+		assertFalse(filter.mightContain(""));
+	}
+
+	@Test
+	public void falsePositiveRateStaysNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++)
+			filter.add("revoked-" + i);
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain("live-" + i))
+				falsePositives++;
+		}
+		// 1% expected; allow for hash quality, not for a broken filter
+		assertTrue("false positives: " + falsePositives, falsePositives < 2_000);
+	}
+
+	@Test
+	public void overfilledFilterStillHasNoFalseNegatives() {
+		BloomFilter filter = new BloomFilter(10, 0.01);
+		for (int i = 0; i < 1_000; i++)
+			filter.add("jti-" + i);
+
+		for (int i = 0; i < 1_000; i++)
+			assertTrue(filter.mightContain("jti-" + i));
+	}
+}
@@ -0,0 +1,115 @@
+package com.akm.blog.demo.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/*
+ * Entries must disappear at their own expiry, and a full cache must make
+ * room by dropping expired entries before live ones.
+ */
+public class ExpiringCacheTest {
+
+	private static final long HOUR = 3_600_000L;
+
+	@Test
+	public void returnsLiveEntries() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+
+		cache.put("a", "value", inMillis(HOUR));
+
+		assertEquals("value", cache.get("a"));
+		assertEquals(1, cache.hitCount());
+	}
+
+	@Test
+	public void expiredEntriesAreNeverReturned() throws Exception {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+
+		cache.put("a", "value", inMillis(30));
+		Thread.sleep(60);
+
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.missCount());
+		assertEquals(1, cache.evictionCount());
+	}
+
+	@Test
+	public void alreadyExpiredPutsAreIgnored() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+
+		cache.put("a", "value", System.currentTimeMillis() - 1);
+
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void fullCacheDropsExpiredEntriesFirst() throws Exception {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(4);
+		cache.put("live", "value", inMillis(HOUR));
+		cache.put("short1", "value", inMillis(30));
+		cache.put("short2", "value", inMillis(30));
+		cache.put("short3", "value", inMillis(30));
+		Thread.sleep(60);
+
+		cache.put("new", "value", inMillis(HOUR));
+
+		assertEquals(2, cache.size());
+		assertEquals("value", cache.get("live"));
+		assertEquals("value", cache.get("new"));
+	}
+
+	@Test
+	public void fullCacheOfLiveEntriesStaysBounded() {
+		ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(100);
+
+		for (int i = 0; i < 1000; i++)
+			cache.put(i, i, inMillis(HOUR));
+
+		assertTrue(cache.size() <= 100);
+		assertEquals(Integer.valueOf(999), cache.get(999));
+	}
+
+	@Test
+	public void replacingAKeyInAFullCacheEvictsNothing() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(2);
+		cache.put("a", "old", inMillis(HOUR));
+		cache.put("b", "value", inMillis(HOUR));
+
+		cache.put("a", "new", inMillis(HOUR));
+
+		assertEquals("new", cache.get("a"));
+		assertEquals("value", cache.get("b"));
+		assertEquals(0, cache.evictionCount());
+	}
+
+	@Test
+	public void removeDropsTheEntry() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+		cache.put("a", "value", inMillis(HOUR));
+
+		cache.remove("a");
+
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void hitRateCountsHitsAndMisses() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+		cache.put("a", "value", inMillis(HOUR));
+
+		cache.get("a");
+		cache.get("a");
+		cache.get("a");
+		cache.get("missing");
+
+		assertEquals(0.75, cache.hitRate(), 0.0);
+	}
+
+	private static long inMillis(long millis) {
+		return System.currentTimeMillis() + millis;
+	}
+}
@@ -0,0 +1,103 @@
+package com.akm.blog.demo.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.model.User;
+import com.akm.blog.demo.repository.BlogRepository;
+import com.akm.blog.demo.repository.UserRepository;
+
+/*
+ * Blog rows written before the pooled id generator (AUTO_INCREMENT ids)
+ * must never be handed out again: blog_seq is raised past them, and only
+ * ever raised.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(BlogSequenceSeeder.class)
+// The id generator reads blog_seq on a connection of its own, so seeding must commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BlogSequenceSeederTest {
+
+	@Autowired
+	private BlogSequenceSeeder seeder;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User user;
+
+	@Before
+	public void setUp() {
+		user = userRepository.save(new User("seeder", "password", true, null, null));
+	}
+
+	@After
+	public void tearDown() {
+		blogRepository.deleteAll();
+		userRepository.deleteAll();
+		jdbcTemplate.update("update blog_seq set next_val = 1");
+	}
+
+	@Test
+	public void seedMovesTheSequencePastExistingIds() {
+		legacyBlog(500L);
+		legacyBlog(1000L);
+
+		seeder.seed();
+
+		assertEquals(1001L, nextVal());
+		assertTrue(newBlogId() > 1000L);
+	}
+
+	@Test
+	public void seedNeverLowersTheSequence() {
+		legacyBlog(500L);
+		jdbcTemplate.update("update blog_seq set next_val = 5000");
+
+		seeder.seed();
+
+		assertEquals(5000L, nextVal());
+	}
+
+	@Test
+	public void seedIsANoOpWithoutBlogs() {
+		seeder.seed();
+
+		assertEquals(1L, nextVal());
+	}
+
+	private void legacyBlog(Long id) {
+		jdbcTemplate.update("insert into blog (id, name, description, user_id, version, deleted) values (?, ?, ?, ?, 0, false)",
+				id, "legacy " + id, "legacy", user.getId());
+	}
+
+	private long nextVal() {
+		return jdbcTemplate.queryForObject("select next_val from blog_seq", Long.class);
+	}
+
+	private Long newBlogId() {
+		Blog blog = new Blog(null, "new", "new", null);
+		blog.setUser(user);
+		return blogRepository.save(blog).getId();
+	}
+}
@@ -0,0 +1,96 @@
+package com.akm.blog.demo.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BlogTaskExecutorTest {
+
+	private static final long QUEUE_TIMEOUT_MILLIS = 100;
+
+	private final BlogTaskExecutor executor = new BlogTaskExecutor();
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(executor, "threads", 1);
+		ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+		ReflectionTestUtils.setField(executor, "queueTimeoutMillis", QUEUE_TIMEOUT_MILLIS);
+		ReflectionTestUtils.setField(executor, "meterRegistry", new SimpleMeterRegistry());
+		executor.init();
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	public void startedTaskOutlivesTheQueueTimeout() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		DeferredResult<String> running = executor.submit(() -> {
+			started.countDown();
+			release.await();
+			return "written";
+		});
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+
+		Thread.sleep(3 * QUEUE_TIMEOUT_MILLIS);
+		assertFalse(running.hasResult());
+
+		release.countDown();
+		awaitResult(running);
+		assertEquals("written", running.getResult());
+	}
+
+	@Test
+	public void queuedTaskExpiresWithoutRunning() throws Exception {
+		executor.submit(() -> {
+			release.await();
+			return "blocking";
+		});
+		AtomicBoolean ran = new AtomicBoolean();
+		DeferredResult<String> queued = executor.submit(() -> {
+			ran.set(true);
+			return "late";
+		});
+
+		awaitResult(queued);
+		assertTrue(queued.getResult() instanceof BlogRequestRejectedException);
+
+		release.countDown();
+		Thread.sleep(QUEUE_TIMEOUT_MILLIS);
+		assertFalse(ran.get());
+	}
+
+	@Test(expected = BlogRequestRejectedException.class)
+	public void fullQueueIsRejectedAtOnce() {
+		executor.submit(() -> {
+			release.await();
+			return "blocking";
+		});
+		executor.submit(() -> "queued");
+		executor.submit(() -> "rejected");
+	}
+
+	private static void awaitResult(DeferredResult<?> result) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!result.hasResult() && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		assertTrue(result.hasResult());
+	}
+}
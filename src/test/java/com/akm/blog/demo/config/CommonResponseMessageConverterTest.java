@@ -0,0 +1,64 @@
+package com.akm.blog.demo.config;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CommonResponseMessageConverterTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Test
+	public void writesTheSameJsonAsSerializingToString() throws IOException {
+		CommonResponse response = page(20);
+		ByteArrayOutputStream before = new ByteArrayOutputStream();
+		new StringHttpMessageConverter(StandardCharsets.UTF_8).write(MAPPER.writeValueAsString(response),
+				MediaType.APPLICATION_JSON, message(before));
+		ByteArrayOutputStream after = new ByteArrayOutputStream();
+		new CommonResponseMessageConverter().write(response, MediaType.APPLICATION_JSON, message(after));
+		assertEquals(before.toString("UTF-8"), after.toString("UTF-8"));
+	}
+
+	private static HttpOutputMessage message(OutputStream body) {
+		HttpHeaders headers = new HttpHeaders();
+		return new HttpOutputMessage() {
+			@Override
+			public OutputStream getBody() {
+				return body;
+			}
+
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+		};
+	}
+
+	private static CommonResponse page(int size) {
+		List<BlogSummaryDTO> blogs = new ArrayList<>(size);
+		Calendar createdAt = Calendar.getInstance();
+		for (int i = 0; i < size; i++)
+			blogs.add(new BlogSummaryDTO((long) i, "Blog " + i, "Description of blog " + i, createdAt, 0L));
+		CommonResponse response = new CommonResponse();
+		response.setStatusCode(CommonConstants.SUCCESS);
+		response.setResponseData("message", blogs);
+		return response;
+	}
+}
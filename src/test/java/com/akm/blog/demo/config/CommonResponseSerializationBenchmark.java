@@ -0,0 +1,114 @@
+package com.akm.blog.demo.config;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Bytes allocated per getBlogs response (a 20 blog page): serializing the
+ * envelope to a String and writing that String out, as the services and
+ * controllers used to, against CommonResponseMessageConverter writing the
+ * envelope straight to the output stream. Run with mvn test -Pbenchmarks.
+ */
+public class CommonResponseSerializationBenchmark {
+
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 50_000;
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	// Boot configures the String converter for UTF-8
+	private final StringHttpMessageConverter stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+
+	private final CommonResponseMessageConverter converter = new CommonResponseMessageConverter();
+
+	private final CommonResponse response = page(20);
+
+	@Test
+	public void compareAllocatedBytesPerResponse() throws IOException {
+		OutputStream sink = new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		};
+		for (int i = 0; i < WARMUP; i++) {
+			writeAsString(sink);
+			writeDirect(sink);
+		}
+
+		long start = allocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++)
+			writeAsString(sink);
+		long stringBytes = allocatedBytes() - start;
+
+		start = allocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++)
+			writeDirect(sink);
+		long directBytes = allocatedBytes() - start;
+
+		System.out.printf("getBlogs response allocation per call: String %d bytes, direct %d bytes%n",
+				stringBytes / ITERATIONS, directBytes / ITERATIONS);
+		assertTrue(directBytes < stringBytes);
+	}
+
+	private void writeAsString(OutputStream sink) throws IOException {
+		stringConverter.write(MAPPER.writeValueAsString(response), MediaType.APPLICATION_JSON, message(sink));
+	}
+
+	private void writeDirect(OutputStream sink) throws IOException {
+		converter.write(response, MediaType.APPLICATION_JSON, message(sink));
+	}
+
+	private static HttpOutputMessage message(OutputStream body) {
+		HttpHeaders headers = new HttpHeaders();
+		return new HttpOutputMessage() {
+			@Override
+			public OutputStream getBody() {
+				return body;
+			}
+
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+		};
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static CommonResponse page(int size) {
+		List<BlogSummaryDTO> blogs = new ArrayList<>(size);
+		Calendar createdAt = Calendar.getInstance();
+		for (int i = 0; i < size; i++)
+			blogs.add(new BlogSummaryDTO((long) i, "Blog " + i,
+					new String(new char[200]).replace('\0', 'x'), createdAt, 0L));
+		CommonResponse response = new CommonResponse();
+		response.setStatusCode(CommonConstants.SUCCESS);
+		response.setResponseData("message", blogs);
+		return response;
+	}
+}
@@ -0,0 +1,115 @@
+package com.akm.blog.demo.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Payload size and encode/decode time of a 100 blog getBlogs page in each
+ * format the blog endpoints can negotiate. Run with mvn test -Pbenchmarks;
+ * ResponseFormatTest checks that the formats carry the same data.
+ */
+public class ResponseFormatBenchmark {
+
+	private static final int WARMUP = 5_000;
+	private static final int ITERATIONS = 20_000;
+
+	private final CommonResponse response = page(100);
+
+	@Test
+	public void compareFormats() throws IOException {
+		Format json = new Format("JSON", new CommonResponseMessageConverter(), MediaType.APPLICATION_JSON,
+				new ObjectMapper());
+		Format smile = new Format("Smile", CommonResponseMessageConverter.smile(),
+				CommonResponseMessageConverter.APPLICATION_SMILE, new ObjectMapper(new SmileFactory()));
+		Format cbor = new Format("CBOR", CommonResponseMessageConverter.cbor(),
+				CommonResponseMessageConverter.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()));
+
+		for (Format format : new Format[] { json, smile, cbor }) {
+			byte[] payload = format.encode();
+
+			for (int i = 0; i < WARMUP; i++)
+				format.decode(format.encode());
+
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++)
+				format.encode();
+			long encodeNanos = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++)
+				format.decode(payload);
+			long decodeNanos = System.nanoTime() - start;
+
+			System.out.printf("100 blog page as %s: %d bytes, encode %.1f us, decode %.1f us%n", format.name,
+					payload.length, encodeNanos / 1000.0 / ITERATIONS, decodeNanos / 1000.0 / ITERATIONS);
+		}
+	}
+
+	private final class Format {
+
+		private final String name;
+
+		private final CommonResponseMessageConverter converter;
+
+		private final MediaType mediaType;
+
+		private final ObjectMapper reader;
+
+		Format(String name, CommonResponseMessageConverter converter, MediaType mediaType, ObjectMapper reader) {
+			this.name = name;
+			this.converter = converter;
+			this.mediaType = mediaType;
+			this.reader = reader;
+		}
+
+		byte[] encode() throws IOException {
+			ByteArrayOutputStream body = new ByteArrayOutputStream(16 * 1024);
+			HttpHeaders headers = new HttpHeaders();
+			converter.write(response, mediaType, new HttpOutputMessage() {
+				@Override
+				public HttpHeaders getHeaders() {
+					return headers;
+				}
+
+				@Override
+				public ByteArrayOutputStream getBody() {
+					return body;
+				}
+			});
+			return body.toByteArray();
+		}
+
+		JsonNode decode(byte[] payload) throws IOException {
+			return reader.readTree(payload);
+		}
+	}
+
+	private static CommonResponse page(int size) {
+		List<BlogSummaryDTO> blogs = new ArrayList<>(size);
+		Calendar createdAt = Calendar.getInstance();
+		for (int i = 0; i < size; i++)
+			blogs.add(new BlogSummaryDTO(1_000_000L + i, "Blog title number " + i,
+					"A short description of blog " + i + " that is about as long as the usual ones.", createdAt,
+					(long) i % 5));
+		CommonResponse response = new CommonResponse();
+		response.setStatusCode(CommonConstants.SUCCESS);
+		response.setResponseData("message", blogs);
+		return response;
+	}
+}
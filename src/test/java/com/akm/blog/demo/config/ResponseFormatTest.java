@@ -0,0 +1,81 @@
+package com.akm.blog.demo.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Every negotiable format must decode to the same document as JSON.
+ */
+public class ResponseFormatTest {
+
+	private final CommonResponse response = page(100);
+
+	@Test
+	public void smileRoundTripsToTheSameDocumentAsJson() throws IOException {
+		byte[] smile = encode(CommonResponseMessageConverter.smile(), CommonResponseMessageConverter.APPLICATION_SMILE);
+		assertEquals(jsonDocument(), new ObjectMapper(new SmileFactory()).readTree(smile).toString());
+		assertTrue(smile.length < encode(new CommonResponseMessageConverter(), MediaType.APPLICATION_JSON).length);
+	}
+
+	@Test
+	public void cborRoundTripsToTheSameDocumentAsJson() throws IOException {
+		byte[] cbor = encode(CommonResponseMessageConverter.cbor(), CommonResponseMessageConverter.APPLICATION_CBOR);
+		assertEquals(jsonDocument(), new ObjectMapper(new CBORFactory()).readTree(cbor).toString());
+		assertTrue(cbor.length < encode(new CommonResponseMessageConverter(), MediaType.APPLICATION_JSON).length);
+	}
+
+	// Compared as text: binary formats may pick narrower number types
+	private String jsonDocument() throws IOException {
+		return new ObjectMapper().readTree(encode(new CommonResponseMessageConverter(), MediaType.APPLICATION_JSON))
+				.toString();
+	}
+
+	private byte[] encode(CommonResponseMessageConverter converter, MediaType mediaType) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		HttpHeaders headers = new HttpHeaders();
+		converter.write(response, mediaType, new HttpOutputMessage() {
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+
+			@Override
+			public ByteArrayOutputStream getBody() {
+				return body;
+			}
+		});
+		return body.toByteArray();
+	}
+
+	private static CommonResponse page(int size) {
+		List<BlogSummaryDTO> blogs = new ArrayList<>(size);
+		Calendar createdAt = Calendar.getInstance();
+		for (int i = 0; i < size; i++)
+			blogs.add(new BlogSummaryDTO(1_000_000L + i, "Blog title number " + i,
+					"A short description of blog " + i + " that is about as long as the usual ones.", createdAt,
+					(long) i % 5));
+		CommonResponse response = new CommonResponse();
+		response.setStatusCode(CommonConstants.SUCCESS);
+		response.setResponseData("message", blogs);
+		return response;
+	}
+}
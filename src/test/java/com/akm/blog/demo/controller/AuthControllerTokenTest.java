@@ -0,0 +1,147 @@
+package com.akm.blog.demo.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.message.request.RefreshTokenForm;
+import com.akm.blog.demo.message.response.JwtResponse;
+import com.akm.blog.demo.repository.RevokedTokenRepository;
+import com.akm.blog.demo.security.LoginThrottle;
+import com.akm.blog.demo.security.jwt.JwtProvider;
+import com.akm.blog.demo.security.jwt.SecurityFailureTelemetry;
+import com.akm.blog.demo.security.jwt.TokenRevocationService;
+import com.akm.blog.demo.security.services.PasswordRehashService;
+import com.akm.blog.demo.security.services.RoleCache;
+import com.akm.blog.demo.security.services.UserDetailsServiceImpl;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Refresh tokens are single use, and signing out revokes both tokens so
+ * neither is accepted again.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({ AuthController.class, JwtProvider.class, TokenRevocationService.class, SimpleMeterRegistry.class })
+@TestPropertySource(properties = { "grokonez.app.jwtSecret=jwtGrokonezSecretKey",
+		"grokonez.app.jwtExpiration=900", "grokonez.app.jwtRefreshExpiration=3600" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AuthControllerTokenTest {
+
+	@Autowired
+	private AuthController authController;
+
+	@Autowired
+	private JwtProvider jwtProvider;
+
+	@Autowired
+	private TokenRevocationService revocationService;
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@MockBean
+	private UserDetailsServiceImpl userDetailsService;
+
+	@MockBean
+	private SecurityFailureTelemetry telemetry;
+
+	@MockBean
+	private AuthenticationManager authenticationManager;
+
+	@MockBean
+	private RoleCache roleCache;
+
+	@MockBean
+	private PasswordEncoder encoder;
+
+	@MockBean
+	private PasswordRehashService passwordRehashService;
+
+	@MockBean
+	private LoginThrottle loginThrottle;
+
+	private UserPrinciple alice;
+
+	@Before
+	public void setUp() {
+		alice = new UserPrinciple(7L, "alice", null, true,
+				Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+		when(userDetailsService.loadUserByUsername("alice")).thenReturn(alice);
+	}
+
+	@After
+	public void tearDown() {
+		revokedTokenRepository.deleteAll();
+		revocationService.rebuild();
+	}
+
+	@Test
+	public void refreshIssuesANewPairAndRevokesThePresentedToken() {
+		String refreshToken = jwtProvider.generateRefreshToken(alice);
+
+		ResponseEntity<?> response = authController.refreshToken(form(refreshToken));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		JwtResponse tokens = (JwtResponse) response.getBody();
+		assertNotEquals(refreshToken, tokens.getRefreshToken());
+		assertTrue(revocationService.isRevoked(jwtProvider.getValidClaims(refreshToken).getId()));
+	}
+
+	@Test
+	public void refreshTokenCannotBeUsedTwice() {
+		String refreshToken = jwtProvider.generateRefreshToken(alice);
+		authController.refreshToken(form(refreshToken));
+
+		assertEquals(HttpStatus.UNAUTHORIZED, authController.refreshToken(form(refreshToken)).getStatusCode());
+	}
+
+	@Test
+	public void accessTokenIsNotAcceptedAsRefreshToken() {
+		String accessToken = jwtProvider.generateJwtToken(alice);
+
+		assertEquals(HttpStatus.UNAUTHORIZED, authController.refreshToken(form(accessToken)).getStatusCode());
+		assertEquals(0, revokedTokenRepository.count());
+	}
+
+	@Test
+	public void signOutRevokesBothTokens() {
+		String accessToken = jwtProvider.generateJwtToken(alice);
+		String refreshToken = jwtProvider.generateRefreshToken(alice);
+
+		authController.signOut(form(refreshToken), "Bearer " + accessToken);
+
+		assertTrue(revocationService.isRevoked(jwtProvider.getValidClaims(accessToken).getId()));
+		assertTrue(revocationService.isRevoked(jwtProvider.getValidClaims(refreshToken).getId()));
+		assertEquals(HttpStatus.UNAUTHORIZED, authController.refreshToken(form(refreshToken)).getStatusCode());
+	}
+
+	private static RefreshTokenForm form(String token) {
+		RefreshTokenForm form = new RefreshTokenForm();
+		form.setRefreshToken(token);
+		return form;
+	}
+}
@@ -0,0 +1,189 @@
+package com.akm.blog.demo.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.common.ETags;
+import com.akm.blog.demo.common.InvalidCursorException;
+import com.akm.blog.demo.common.PreconditionFailedException;
+import com.akm.blog.demo.config.BlogTaskExecutor;
+import com.akm.blog.demo.config.CommonResponseMessageConverter;
+import com.akm.blog.demo.service.BlogService;
+
+/*
+ * Conditional reads and writes on the blog endpoints: 304 without a body
+ * for a matching If-None-Match, 412 for a stale If-Match and 400 for an
+ * If-Match that names no version or a cursor that is not one of ours.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BlogControllerETagTest {
+
+	@Mock
+	private BlogService blogService;
+
+	@Mock
+	private BlogTaskExecutor blogTaskExecutor;
+
+	@InjectMocks
+	private BlogController blogController;
+
+	private CountingConverter converter;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		converter = new CountingConverter();
+		mockMvc = MockMvcBuilders.standaloneSetup(blogController)
+				.setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+				.setMessageConverters(converter, new MappingJackson2HttpMessageConverter())
+				.build();
+	}
+
+	@Test
+	public void matchingIfNoneMatchAnswers304WithoutSerializingTheBody() throws Exception {
+		runTasksInline();
+		CommonResponse page = page();
+		when(blogService.getBlogs(any())).thenReturn(page);
+
+		performAsync(get("/api/getBlogs").header(HttpHeaders.IF_NONE_MATCH, page.getEntityTag()))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, page.getEntityTag()))
+				.andExpect(content().string(""));
+		assertEquals(0, converter.writes);
+	}
+
+	@Test
+	public void otherIfNoneMatchGetsTheFullPage() throws Exception {
+		runTasksInline();
+		CommonResponse page = page();
+		when(blogService.getBlogs(any())).thenReturn(page);
+
+		performAsync(get("/api/getBlogs").header(HttpHeaders.IF_NONE_MATCH, "W/\"stale\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, page.getEntityTag()))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+		assertEquals(1, converter.writes);
+	}
+
+	@Test
+	public void staleIfMatchAnswers412() throws Exception {
+		runTasksInline();
+		when(blogService.editBlog(any(), eq(7L), eq(3L)))
+				.thenThrow(new PreconditionFailedException("Blog 7 is not at version 3"));
+
+		performAsync(edit(7L).header(HttpHeaders.IF_MATCH, "\"3\""))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	public void currentIfMatchReturnsTheNewETag() throws Exception {
+		runTasksInline();
+		CommonResponse edited = new CommonResponse();
+		edited.setStatusCode(CommonConstants.SUCCESS);
+		edited.setEntityTag(ETags.forVersion(4L));
+		when(blogService.editBlog(any(), eq(7L), eq(3L))).thenReturn(edited);
+
+		performAsync(edit(7L).header(HttpHeaders.IF_MATCH, "\"3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+	}
+
+	@Test
+	public void malformedIfMatchAnswers400() throws Exception {
+		mockMvc.perform(edit(7L).header(HttpHeaders.IF_MATCH, "\"latest\""))
+				.andExpect(status().isBadRequest());
+		verify(blogService, never()).editBlog(any(), anyLong(), any());
+	}
+
+	@Test
+	public void tamperedCursorAnswers400() throws Exception {
+		when(blogService.getBlogsByCursor(eq("tampered"), any())).thenThrow(new InvalidCursorException("Invalid cursor"));
+
+		mockMvc.perform(get("/api/getBlogs/cursor").param("cursor", "tampered"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static MockHttpServletRequestBuilder edit(Long id) {
+		return patch("/api/editBlog/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"New name\"}");
+	}
+
+	private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+		MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(started));
+	}
+
+	// Completes the DeferredResult on the calling thread
+	private void runTasksInline() {
+		when(blogTaskExecutor.submit(any())).thenAnswer(invocation -> {
+			Callable<?> task = invocation.getArgument(0);
+			DeferredResult<Object> result = new DeferredResult<>();
+			try {
+				result.setResult(task.call());
+			} catch (Exception e) {
+				result.setErrorResult(e);
+			}
+			return result;
+		});
+	}
+
+	private static CommonResponse page() {
+		List<BlogSummaryDTO> blogs = Collections.singletonList(
+				new BlogSummaryDTO(1L, "Blog", "Description", Calendar.getInstance(), 2L));
+		CommonResponse response = new CommonResponse();
+		response.setStatusCode(CommonConstants.SUCCESS);
+		response.setResponseData("message", blogs);
+		response.setEntityTag(ETags.forBlogs(blogs, null));
+		return response;
+	}
+
+	private static final class CountingConverter extends CommonResponseMessageConverter {
+
+		private int writes;
+
+		@Override
+		protected void writeInternal(CommonResponse response, HttpOutputMessage outputMessage) throws IOException {
+			writes++;
+			super.writeInternal(response, outputMessage);
+		}
+	}
+}
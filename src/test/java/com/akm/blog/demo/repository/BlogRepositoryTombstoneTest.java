@@ -0,0 +1,143 @@
+package com.akm.blog.demo.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.model.User;
+
+/*
+ * Tombstoned blogs must be invisible to every read and write path until
+ * the purger removes them.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+// Integer.MIN_VALUE streaming is MySQL-only
+@TestPropertySource(properties = "grokonez.app.blogStreamFetchSize=100")
+public class BlogRepositoryTombstoneTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	private User owner;
+
+	private User other;
+
+	private Long live;
+
+	private Long tombstoned;
+
+	private Long othersBlog;
+
+	@Before
+	public void setUp() {
+		owner = entityManager.persist(new User("owner", "password", true, null, null));
+		other = entityManager.persist(new User("other", "password", true, null, null));
+		live = blog(owner, "live");
+		tombstoned = blog(owner, "tombstoned");
+		othersBlog = blog(other, "others");
+
+		assertEquals(1, blogRepository.markDeleted(owner.getId(), Collections.singletonList(tombstoned)));
+		entityManager.clear();
+	}
+
+	@Test
+	public void pagedSummariesExcludeTombstones() {
+		assertEquals(Collections.singletonList(live),
+				ids(blogRepository.findSummariesByUserId(owner.getId(), PageRequest.of(0, 10)).getContent()));
+		assertEquals(1, blogRepository.findSummariesByUserId(owner.getId(), PageRequest.of(0, 10))
+				.getTotalElements());
+	}
+
+	@Test
+	public void keysetPagesExcludeTombstones() {
+		List<BlogSummaryDTO> first = blogRepository.findFirstSummaries(owner.getId(), PageRequest.of(0, 10));
+		assertEquals(Collections.singletonList(live), ids(first));
+
+		// A cursor positioned after the newest blog still skips the tombstone behind it
+		Long newest = blog(owner, "newest");
+		BlogSummaryDTO top = blogRepository.findFirstSummaries(owner.getId(), PageRequest.of(0, 1)).get(0);
+		assertEquals(newest, top.getId());
+		assertEquals(Collections.singletonList(live), ids(blogRepository.findSummariesAfter(owner.getId(),
+				top.getCreatedAt(), top.getId(), PageRequest.of(0, 10))));
+	}
+
+	@Test
+	public void streamsExcludeTombstones() {
+		try (Stream<BlogSummaryDTO> blogs = blogRepository.streamSummariesByUserId(owner.getId())) {
+			assertEquals(Collections.singletonList(live), ids(blogs.collect(Collectors.toList())));
+		}
+		try (Stream<Object[]> rows = blogRepository.streamAllForIndex()) {
+			List<Long> ids = rows.map(row -> (Long) row[1]).sorted().collect(Collectors.toList());
+			assertEquals(Arrays.asList(live, othersBlog), ids);
+		}
+	}
+
+	@Test
+	public void tombstonesCannotBeEdited() {
+		assertNull(blogRepository.updateFields(tombstoned, owner.getId(), "edited", null, null));
+		assertFalse(blogRepository.existsByIdAndUserIdAndDeletedFalse(tombstoned, owner.getId()));
+		assertEquals(Long.valueOf(1L), blogRepository.updateFields(live, owner.getId(), "edited", null, null));
+	}
+
+	@Test
+	public void markDeletedIgnoresOtherUsersAndAlreadyDeletedBlogs() {
+		assertEquals(0, blogRepository.markDeleted(owner.getId(), Arrays.asList(othersBlog, tombstoned)));
+		assertTrue(blogRepository.existsByIdAndUserIdAndDeletedFalse(othersBlog, other.getId()));
+
+		assertEquals(1, blogRepository.markDeleted(owner.getId(), Arrays.asList(live, othersBlog)));
+		assertFalse(blogRepository.existsByIdAndUserIdAndDeletedFalse(live, owner.getId()));
+	}
+
+	@Test
+	public void purgeRemovesAtMostBatchSizeTombstones() {
+		blogRepository.markDeleted(owner.getId(), Collections.singletonList(live));
+		blogRepository.markDeleted(other.getId(), Collections.singletonList(othersBlog));
+
+		assertEquals(2, blogRepository.purgeDeleted(2));
+		assertEquals(1, blogRepository.count());
+		assertEquals(1, blogRepository.purgeDeleted(2));
+		assertEquals(0, blogRepository.purgeDeleted(2));
+		assertEquals(0, blogRepository.count());
+	}
+
+	@Test
+	public void purgeKeepsLiveBlogs() {
+		assertEquals(1, blogRepository.purgeDeleted(10));
+		assertFalse(blogRepository.existsById(tombstoned));
+		assertTrue(blogRepository.existsById(live));
+		assertTrue(blogRepository.existsById(othersBlog));
+	}
+
+	private Long blog(User user, String name) {
+		Blog blog = new Blog(null, name, name + " description", null);
+		blog.setUser(user);
+		return entityManager.persistAndFlush(blog).getId();
+	}
+
+	private static List<Long> ids(List<BlogSummaryDTO> blogs) {
+		return blogs.stream().map(BlogSummaryDTO::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,189 @@
+package com.akm.blog.demo.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.repository.BlogRepository;
+
+/*
+ * Exercises the index directly; no transaction is active, so the
+ * *AfterCommit methods apply their change immediately.
+ */
+public class BlogSearchIndexTest {
+
+	private static final Long ALICE = 1L;
+	private static final Long BOB = 2L;
+
+	private final BlogRepository blogRepository = mock(BlogRepository.class);
+
+	private BlogSearchIndex index;
+
+	@Before
+	public void setUp() {
+		index = new BlogSearchIndex();
+		ReflectionTestUtils.setField(index, "blogRepository", blogRepository);
+		ReflectionTestUtils.setField(index, "transactionManager", mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	public void nameMatchesOutrankDescriptionMatches() {
+		index.indexAfterCommit(ALICE, blog(1L, "Cooking notes", "All about spring vegetables"));
+		index.indexAfterCommit(ALICE, blog(2L, "Spring vegetables", "All about cooking notes"));
+
+		assertEquals(Arrays.asList(2L, 1L), ids(index.search(ALICE, "spring", 10)));
+	}
+
+	@Test
+	public void rareTermsOutweighCommonOnes() {
+		index.indexAfterCommit(ALICE, blog(1L, "Java", "java basics"));
+		index.indexAfterCommit(ALICE, blog(2L, "Java", "kafka basics"));
+		index.indexAfterCommit(ALICE, blog(3L, "Java", "java streams"));
+
+		assertEquals(Long.valueOf(2L), index.search(ALICE, "java kafka", 10).get(0).getId());
+	}
+
+	@Test
+	public void shorterDocumentsRankFirstForTheSameMatch() {
+		index.indexAfterCommit(ALICE, blog(1L, "Travel", "kafka on a long trip through many other countries"));
+		index.indexAfterCommit(ALICE, blog(2L, "Travel", "kafka"));
+
+		assertEquals(Arrays.asList(2L, 1L), ids(index.search(ALICE, "kafka", 10)));
+	}
+
+	@Test
+	public void limitKeepsTheBestHitsAndNewerBlogsWinTies() {
+		for (long id = 1; id <= 5; id++)
+			index.indexAfterCommit(ALICE, blog(id, "Same title", "same text"));
+
+		assertEquals(Arrays.asList(5L, 4L), ids(index.search(ALICE, "title", 2)));
+	}
+
+	@Test
+	public void queriesAreTokenizedLikeDocuments() {
+		index.indexAfterCommit(ALICE, blog(1L, "Spring-Boot", "JWT tokens"));
+
+		assertEquals(Collections.singletonList(1L), ids(index.search(ALICE, "  BOOT!! ", 10)));
+		assertTrue(index.search(ALICE, "?!", 10).isEmpty());
+		assertTrue(index.search(ALICE, null, 10).isEmpty());
+	}
+
+	@Test
+	public void searchOnlySeesTheCallersBlogs() {
+		index.indexAfterCommit(ALICE, blog(1L, "Alice on spring", null));
+		index.indexAfterCommit(BOB, blog(2L, "Bob on spring", null));
+
+		assertEquals(Collections.singletonList(1L), ids(index.search(ALICE, "spring", 10)));
+		assertEquals(Collections.singletonList(2L), ids(index.search(BOB, "spring", 10)));
+		assertTrue(index.search(3L, "spring", 10).isEmpty());
+	}
+
+	@Test
+	public void reindexingReplacesOldTerms() {
+		index.indexAfterCommit(ALICE, blog(1L, "Old title", "old text"));
+		index.indexAfterCommit(ALICE, blog(1L, "New title", "new text"));
+
+		assertTrue(index.search(ALICE, "old", 10).isEmpty());
+		assertEquals(Collections.singletonList(1L), ids(index.search(ALICE, "new", 10)));
+		assertEquals(1, index.search(ALICE, "title", 10).size());
+	}
+
+	@Test
+	public void blogMovesWithItsOwner() {
+		index.indexAfterCommit(ALICE, blog(1L, "Shared spring notes", null));
+		index.indexAfterCommit(BOB, blog(1L, "Shared spring notes", null));
+
+		assertTrue(index.search(ALICE, "spring", 10).isEmpty());
+		assertEquals(Collections.singletonList(1L), ids(index.search(BOB, "spring", 10)));
+	}
+
+	@Test
+	public void rebuildAddsStoredBlogsAndBecomesReady() {
+		when(blogRepository.streamAllForIndex()).thenReturn(Stream.<Object[]>of(row(ALICE, 1L, "Stored spring blog"),
+				row(BOB, 2L, "Another spring blog")));
+		assertFalse(index.isReady());
+
+		index.rebuild();
+
+		assertTrue(index.isReady());
+		assertEquals(Collections.singletonList(1L), ids(index.search(ALICE, "spring", 10)));
+		assertEquals(Collections.singletonList(2L), ids(index.search(BOB, "spring", 10)));
+	}
+
+	@Test
+	public void rebuildDoesNotOverwriteWritesCommittedMeanwhile() {
+		index.indexAfterCommit(ALICE, blog(1L, "Edited title", null));
+		when(blogRepository.streamAllForIndex()).thenReturn(Stream.<Object[]>of(row(ALICE, 1L, "Stale title")));
+
+		index.rebuild();
+
+		assertTrue(index.search(ALICE, "stale", 10).isEmpty());
+		assertEquals(Collections.singletonList(1L), ids(index.search(ALICE, "edited", 10)));
+	}
+
+	@Test
+	public void rebuildDoesNotOverwriteOwnerMovesCommittedMeanwhile() {
+		index.indexAfterCommit(BOB, blog(1L, "Moved blog", null));
+		when(blogRepository.streamAllForIndex()).thenReturn(Stream.<Object[]>of(row(ALICE, 1L, "Moved blog")));
+
+		index.rebuild();
+
+		assertTrue(index.search(ALICE, "moved", 10).isEmpty());
+		assertEquals(Collections.singletonList(1L), ids(index.search(BOB, "moved", 10)));
+	}
+
+	@Test
+	public void rebuildDoesNotResurrectBlogsDeletedMeanwhile() {
+		index.removeAfterCommit(ALICE, Collections.singletonList(1L));
+		when(blogRepository.streamAllForIndex()).thenReturn(Stream.<Object[]>of(row(ALICE, 1L, "Deleted blog"),
+				row(ALICE, 2L, "Kept blog")));
+
+		index.rebuild();
+
+		assertEquals(Collections.singletonList(2L), ids(index.search(ALICE, "blog", 10)));
+
+		// Only the running rebuild skips the deleted id, later writes index it again
+		index.indexAfterCommit(ALICE, blog(1L, "Deleted blog", null));
+		assertEquals(2, index.search(ALICE, "blog", 10).size());
+	}
+
+	@Test
+	public void removeDropsOnlyTheOwnersBlogs() {
+		index.indexAfterCommit(ALICE, blog(1L, "Alice spring", null));
+		index.indexAfterCommit(ALICE, blog(2L, "Alice summer spring", null));
+
+		index.removeAfterCommit(BOB, Collections.singletonList(1L));
+		assertEquals(2, index.search(ALICE, "spring", 10).size());
+
+		index.removeAfterCommit(ALICE, Arrays.asList(1L, 3L));
+		assertEquals(Collections.singletonList(2L), ids(index.search(ALICE, "spring", 10)));
+	}
+
+	private static Blog blog(Long id, String name, String description) {
+		return new Blog(id, name, description, Calendar.getInstance());
+	}
+
+	private static Object[] row(Long userId, Long blogId, String name) {
+		return new Object[] { userId, blogId, name, null, Calendar.getInstance(), 0L };
+	}
+
+	private static List<Long> ids(List<BlogSummaryDTO> blogs) {
+		return blogs.stream().map(BlogSummaryDTO::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,83 @@
+package com.akm.blog.demo.security;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Username buckets only pay for wrong passwords: check() takes a token,
+ * refund() gives it back. IP buckets pay for every attempt.
+ */
+public class LoginThrottleTest {
+
+	private static final String IP = "203.0.113.7";
+
+	private LoginThrottle throttle;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		throttle = new LoginThrottle();
+		ReflectionTestUtils.setField(throttle, "usernameCapacity", 2);
+		ReflectionTestUtils.setField(throttle, "usernameRefillPerSecond", 0.0001);
+		ReflectionTestUtils.setField(throttle, "ipCapacity", 5);
+		ReflectionTestUtils.setField(throttle, "ipRefillPerSecond", 0.0001);
+		ReflectionTestUtils.setField(throttle, "maxKeys", 1000);
+		ReflectionTestUtils.setField(throttle, "meterRegistry", meterRegistry);
+		throttle.init();
+	}
+
+	@Test(expected = LoginThrottledException.class)
+	public void wrongPasswordsExhaustTheUsernameBucket() {
+		throttle.check("alice", IP);
+		throttle.check("alice", "198.51.100.1");
+		throttle.check("alice", "198.51.100.2");
+	}
+
+	@Test
+	public void refundedAttemptsNeverExhaustTheUsernameBucket() {
+		for (int i = 0; i < 4; i++) {
+			throttle.check("alice", "198.51.100." + i);
+			throttle.refund("alice");
+		}
+		assertEquals(0.0, throttled("username"), 0.0);
+	}
+
+	@Test
+	public void usernamesAreCaseInsensitive() {
+		throttle.check("Alice", IP);
+		throttle.check("ALICE", "198.51.100.1");
+		try {
+			throttle.check("alice", "198.51.100.2");
+		} catch (LoginThrottledException e) {
+			assertEquals(1.0, throttled("username"), 0.0);
+			return;
+		}
+		throw new AssertionError("Third attempt for alice was not throttled");
+	}
+
+	@Test
+	public void everyAttemptCostsAnIpToken() {
+		for (int i = 0; i < 5; i++) {
+			throttle.check("user" + i, IP);
+			throttle.refund("user" + i);
+		}
+		try {
+			throttle.check("other", IP);
+		} catch (LoginThrottledException e) {
+			assertEquals(1.0, throttled("ip"), 0.0);
+			return;
+		}
+		throw new AssertionError("Sixth attempt from " + IP + " was not throttled");
+	}
+
+	private double throttled(String key) {
+		return meterRegistry.get("login.throttled").tag("key", key).counter().count();
+	}
+}
@@ -0,0 +1,80 @@
+package com.akm.blog.demo.security;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+/*
+ * Per-call cost of @PreAuthorize("hasRole('USER')") style SpEL evaluation
+ * (new root and evaluation context per invocation, as the method security
+ * interceptor does) against the bitmask test used by RoleCheckInterceptor.
+ * Run with mvn test -Pbenchmarks.
+ */
+public class RoleCheckBenchmark {
+
+	private static final int WARMUP = 200_000;
+	private static final int ITERATIONS = 1_000_000;
+
+	private final List<GrantedAuthority> authorities = Arrays.asList(
+			new SimpleGrantedAuthority("ROLE_PM"), new SimpleGrantedAuthority("ROLE_USER"));
+
+	private final UserPrinciple principal = new UserPrinciple(1L, "benchmark", null, true, authorities);
+
+	private final Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null,
+			authorities);
+
+	private final Expression hasRoleUser = new SpelExpressionParser().parseExpression("hasRole('USER')");
+
+	private final int userMask = RoleName.maskOf(RoleName.ROLE_USER);
+
+	@Test
+	public void compareSpelAndBitmaskOverhead() {
+		int hits = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			hits += spelCheck() ? 1 : 0;
+			hits += bitmaskCheck() ? 1 : 0;
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			hits += spelCheck() ? 1 : 0;
+		long spelNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			hits += bitmaskCheck() ? 1 : 0;
+		long bitmaskNanos = System.nanoTime() - start;
+
+		// Keeps the loops from being optimized away
+		assertEquals(2 * (WARMUP + ITERATIONS), hits);
+		System.out.printf("Role check per call: SpEL hasRole %.1f ns, bitmask %.1f ns%n",
+				(double) spelNanos / ITERATIONS, (double) bitmaskNanos / ITERATIONS);
+	}
+
+	private boolean spelCheck() {
+		SecurityExpressionRoot root = new SecurityExpressionRoot(authentication) {
+		};
+		EvaluationContext context = new StandardEvaluationContext(root);
+		return ExpressionUtils.evaluateAsBoolean(hasRoleUser, context);
+	}
+
+	private boolean bitmaskCheck() {
+		return ((UserPrinciple) authentication.getPrincipal()).hasRoles(userMask);
+	}
+}
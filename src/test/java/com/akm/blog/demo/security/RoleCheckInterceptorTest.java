@@ -0,0 +1,191 @@
+package com.akm.blog.demo.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.DispatcherType;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+public class RoleCheckInterceptorTest {
+
+	private final RoleCheckInterceptor interceptor = new RoleCheckInterceptor();
+
+	@After
+	public void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void unannotatedHandlerNeedsNoAuthentication() throws Exception {
+		assertTrue(preHandle(handler(new OpenController(), "open")));
+	}
+
+	@Test
+	public void nonMethodHandlerIsNotChecked() {
+		assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), new Object()));
+	}
+
+	@Test
+	public void userRoleAllowsUserMethod() throws Exception {
+		signIn(RoleName.ROLE_USER);
+		assertTrue(preHandle(handler(new OpenController(), "user")));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void otherRoleIsDenied() throws Exception {
+		signIn(RoleName.ROLE_PM);
+		preHandle(handler(new OpenController(), "user"));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void anonymousIsDenied() throws Exception {
+		preHandle(handler(new OpenController(), "user"));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void allRequiredRolesAreNeeded() throws Exception {
+		signIn(RoleName.ROLE_USER);
+		preHandle(handler(new OpenController(), "userAndPm"));
+	}
+
+	@Test
+	public void holdingAllRequiredRolesIsAllowed() throws Exception {
+		signIn(RoleName.ROLE_USER, RoleName.ROLE_PM);
+		assertTrue(preHandle(handler(new OpenController(), "userAndPm")));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void classLevelRoleAppliesToUnannotatedMethods() throws Exception {
+		signIn(RoleName.ROLE_USER);
+		preHandle(handler(new AdminOnlyController(), "inherited"));
+	}
+
+	@Test
+	public void classLevelRoleIsSatisfied() throws Exception {
+		signIn(RoleName.ROLE_ADMIN);
+		assertTrue(preHandle(handler(new AdminOnlyController(), "inherited")));
+	}
+
+	@Test
+	public void methodLevelRoleOverridesClassLevel() throws Exception {
+		signIn(RoleName.ROLE_USER);
+		assertTrue(preHandle(handler(new AdminOnlyController(), "user")));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void methodLevelRoleIsEnforcedOnAnnotatedClass() throws Exception {
+		signIn(RoleName.ROLE_ADMIN);
+		preHandle(handler(new AdminOnlyController(), "user"));
+	}
+
+	@Test
+	public void authoritiesAreUsedWithoutUserPrinciple() throws Exception {
+		List<GrantedAuthority> authorities = new ArrayList<>();
+		authorities.add(new SimpleGrantedAuthority(RoleName.ROLE_USER.name()));
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("someone", null, authorities));
+		assertTrue(preHandle(handler(new OpenController(), "user")));
+	}
+
+	@Test
+	public void asyncDispatchIsNotRechecked() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setDispatcherType(DispatcherType.ASYNC);
+		assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(),
+				handler(new OpenController(), "user")));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void cachedMaskIsCheckedAgainstEachCaller() throws Exception {
+		HandlerMethod handler = handler(new OpenController(), "user");
+		signIn(RoleName.ROLE_USER);
+		assertTrue(preHandle(handler));
+		signIn(RoleName.ROLE_PM);
+		preHandle(handler);
+	}
+
+	@Test
+	public void bitmaskCheckAgreesWithSpel() {
+		UserPrinciple principal = principal(RoleName.ROLE_PM, RoleName.ROLE_USER);
+		Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null,
+				principal.getAuthorities());
+		for (RoleName roleName : RoleName.values()) {
+			Expression expression = new SpelExpressionParser()
+					.parseExpression("hasRole('" + roleName.name().substring("ROLE_".length()) + "')");
+			SecurityExpressionRoot root = new SecurityExpressionRoot(authentication) {
+			};
+			EvaluationContext context = new StandardEvaluationContext(root);
+			assertEquals(roleName.name(), ExpressionUtils.evaluateAsBoolean(expression, context),
+					principal.hasRoles(roleName.mask()));
+		}
+	}
+
+	private boolean preHandle(HandlerMethod handler) {
+		return interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler);
+	}
+
+	private static HandlerMethod handler(Object controller, String method) throws NoSuchMethodException {
+		return new HandlerMethod(controller, controller.getClass().getMethod(method));
+	}
+
+	private static void signIn(RoleName... roleNames) {
+		UserPrinciple principal = principal(roleNames);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	private static UserPrinciple principal(RoleName... roleNames) {
+		List<GrantedAuthority> authorities = new ArrayList<>();
+		for (RoleName roleName : roleNames)
+			authorities.add(new SimpleGrantedAuthority(roleName.name()));
+		return new UserPrinciple(1L, "tester", null, true, authorities);
+	}
+
+	public static class OpenController {
+
+		public void open() {
+		}
+
+		@RequiresRole(RoleName.ROLE_USER)
+		public void user() {
+		}
+
+		@RequiresRole({ RoleName.ROLE_USER, RoleName.ROLE_PM })
+		public void userAndPm() {
+		}
+	}
+
+	@RequiresRole(RoleName.ROLE_ADMIN)
+	public static class AdminOnlyController {
+
+		public void inherited() {
+		}
+
+		@RequiresRole(RoleName.ROLE_USER)
+		public void user() {
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.akm.blog.demo.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/*
+ * Bucket arithmetic: capacity, refill over time, refunds capped at
+ * capacity and LRU eviction of idle keys.
+ */
+public class TokenBucketThrottleTest {
+
+	// Slow enough that no token comes back while a test runs
+	private static final double NO_REFILL = 0.0001;
+
+	@Test
+	public void allowsCapacityAttemptsThenRejects() {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(3, NO_REFILL, 100);
+
+		assertTrue(throttle.tryAcquire("alice"));
+		assertTrue(throttle.tryAcquire("alice"));
+		assertTrue(throttle.tryAcquire("alice"));
+		assertFalse(throttle.tryAcquire("alice"));
+	}
+
+	@Test
+	public void keysHaveSeparateBuckets() {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(1, NO_REFILL, 100);
+
+		assertTrue(throttle.tryAcquire("alice"));
+		assertFalse(throttle.tryAcquire("alice"));
+		assertTrue(throttle.tryAcquire("bob"));
+	}
+
+	@Test
+	public void refillsOverTime() throws Exception {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(1, 100, 100);
+
+		assertTrue(throttle.tryAcquire("alice"));
+		// 100 tokens per second: one is back after 10ms
+		Thread.sleep(50);
+		assertTrue(throttle.tryAcquire("alice"));
+	}
+
+	@Test
+	public void refillNeverExceedsCapacity() throws Exception {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(2, 1000, 100);
+
+		assertTrue(throttle.tryAcquire("alice"));
+		Thread.sleep(50);
+		long start = System.nanoTime();
+		int granted = 0;
+		while (throttle.tryAcquire("alice"))
+			granted++;
+		// Anything above capacity was refilled while this loop ran
+		assertTrue(granted >= 2);
+		assertTrue(granted <= 2 + (System.nanoTime() - start) / 1_000_000 + 1);
+	}
+
+	@Test
+	public void releaseGivesBackOneToken() {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(1, NO_REFILL, 100);
+
+		assertTrue(throttle.tryAcquire("alice"));
+		throttle.release("alice");
+		assertTrue(throttle.tryAcquire("alice"));
+		assertFalse(throttle.tryAcquire("alice"));
+	}
+
+	@Test
+	public void releaseIsCappedAtCapacity() {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(2, NO_REFILL, 100);
+
+		assertTrue(throttle.tryAcquire("alice"));
+		throttle.release("alice");
+		throttle.release("alice");
+		throttle.release("alice");
+
+		assertTrue(throttle.tryAcquire("alice"));
+		assertTrue(throttle.tryAcquire("alice"));
+		assertFalse(throttle.tryAcquire("alice"));
+	}
+
+	@Test
+	public void releaseOfUnknownKeyIsIgnored() {
+		TokenBucketThrottle throttle = new TokenBucketThrottle(1, NO_REFILL, 100);
+
+		throttle.release("alice");
+
+		assertEquals(0, throttle.size());
+	}
+
+	@Test
+	public void idleKeysAreEvictedOnceFull() {
+		// 64 stripes of one key each
+		TokenBucketThrottle throttle = new TokenBucketThrottle(1, NO_REFILL, 64);
+
+		for (int i = 0; i < 10_000; i++)
+			throttle.tryAcquire("user" + i);
+
+		assertTrue(throttle.size() <= 64);
+	}
+}
@@ -0,0 +1,98 @@
+package com.akm.blog.demo.security.jwt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.akm.blog.demo.security.jwt.SecurityFailureTelemetry.FailureType;
+import com.akm.blog.demo.security.services.UserDetailsServiceImpl;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+
+/*
+ * With stateless auth off every request is checked against the user
+ * store, and a deactivated user must not be authenticated by a token
+ * issued before the deactivation.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JwtAuthTokenFilterTest {
+
+	private static final String TOKEN = "token";
+
+	@Mock
+	private JwtProvider tokenProvider;
+
+	@Mock
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Mock
+	private JwtRecheckPolicy recheckPolicy;
+
+	@Mock
+	private TokenRevocationService revocationService;
+
+	@Mock
+	private SecurityFailureTelemetry telemetry;
+
+	@InjectMocks
+	private JwtAuthTokenFilter filter;
+
+	@Before
+	public void setUp() {
+		Claims claims = new DefaultClaims().setSubject("alice").setId("jti");
+		when(tokenProvider.getValidClaims(TOKEN)).thenReturn(claims);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void activeUserIsAuthenticated() throws Exception {
+		when(userDetailsService.loadUserByUsername("alice")).thenReturn(user(true));
+
+		filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+		assertEquals("alice", SecurityContextHolder.getContext().getAuthentication().getName());
+	}
+
+	@Test
+	public void deactivatedUserIsNotAuthenticated() throws Exception {
+		when(userDetailsService.loadUserByUsername("alice")).thenReturn(user(false));
+
+		filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		verify(telemetry).record(eq(FailureType.UNAUTHORIZED), anyString());
+	}
+
+	private static MockHttpServletRequest request() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Authorization", "Bearer " + TOKEN);
+		return request;
+	}
+
+	private static UserPrinciple user(boolean active) {
+		return new UserPrinciple(1L, "alice", "hash", active, Collections.emptyList());
+	}
+}
@@ -0,0 +1,113 @@
+package com.akm.blog.demo.security.jwt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.akm.blog.demo.security.jwt.SecurityFailureTelemetry.FailureType;
+import com.akm.blog.demo.security.services.UserPrinciple;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Verified tokens are served from the cache until their exp claim; a token
+ * that differs in any byte is verified afresh.
+ */
+public class JwtProviderTest {
+
+	private JwtProvider jwtProvider;
+
+	private SecurityFailureTelemetry telemetry;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private UserPrinciple alice;
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		telemetry = mock(SecurityFailureTelemetry.class);
+		jwtProvider = new JwtProvider();
+		ReflectionTestUtils.setField(jwtProvider, "jwtSecret", "jwtGrokonezSecretKey");
+		ReflectionTestUtils.setField(jwtProvider, "jwtExpiration", 900);
+		ReflectionTestUtils.setField(jwtProvider, "jwtRefreshExpiration", 3600);
+		ReflectionTestUtils.setField(jwtProvider, "jwtCacheSize", 100);
+		ReflectionTestUtils.setField(jwtProvider, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(jwtProvider, "telemetry", telemetry);
+		jwtProvider.init();
+
+		alice = new UserPrinciple(7L, "alice", null, true,
+				Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+	}
+
+	@Test
+	public void repeatedVerificationIsACacheHit() {
+		String token = jwtProvider.generateJwtToken(alice);
+
+		Claims first = jwtProvider.getValidClaims(token);
+		Claims second = jwtProvider.getValidClaims(token);
+
+		assertSame(first, second);
+		assertEquals(1.0, counter("jwt.cache.hits"), 0.0);
+		assertEquals(1.0, counter("jwt.cache.misses"), 0.0);
+	}
+
+	@Test
+	public void tamperedTokenIsNotServedFromTheCache() {
+		String token = jwtProvider.generateJwtToken(alice);
+		jwtProvider.getValidClaims(token);
+
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertNull(jwtProvider.getValidClaims(tampered));
+		verify(telemetry).record(eq(FailureType.SIGNATURE), anyString());
+	}
+
+	@Test
+	public void expiredTokenIsRejectedAndNotCached() {
+		ReflectionTestUtils.setField(jwtProvider, "jwtExpiration", -1);
+		String token = jwtProvider.generateJwtToken(alice);
+
+		assertNull(jwtProvider.getValidClaims(token));
+		verify(telemetry).record(eq(FailureType.EXPIRED), anyString());
+		assertEquals(0.0, meterRegistry.get("jwt.cache.size").gauge().value(), 0.0);
+	}
+
+	@Test
+	public void claimsRebuildThePrincipal() {
+		Claims claims = jwtProvider.getValidClaims(jwtProvider.generateJwtToken(alice));
+
+		UserPrinciple principal = jwtProvider.getUserPrincipleFromClaims(claims);
+
+		assertEquals(Long.valueOf(7L), principal.getId());
+		assertEquals("alice", principal.getUsername());
+		assertEquals(alice.getAuthorities(), principal.getAuthorities());
+		assertFalse(jwtProvider.isRefreshToken(claims));
+	}
+
+	@Test
+	public void refreshTokensCarryNoAuthorities() {
+		Claims claims = jwtProvider.getValidClaims(jwtProvider.generateRefreshToken(alice));
+
+		assertTrue(jwtProvider.isRefreshToken(claims));
+		assertNull(jwtProvider.getUserPrincipleFromClaims(claims));
+	}
+
+	private double counter(String name) {
+		return meterRegistry.get(name).functionCounter().count();
+	}
+}
@@ -0,0 +1,89 @@
+package com.akm.blog.demo.security.jwt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.repository.RevokedTokenRepository;
+
+/*
+ * Revocations must be visible at once on this node, reach other nodes at
+ * the next rebuild, and be forgotten once the token has expired anyway.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(TokenRevocationService.class)
+// A duplicate insert must fail on its own, not poison a shared test transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TokenRevocationServiceTest {
+
+	private static final long HOUR = 3_600_000L;
+
+	@Autowired
+	private TokenRevocationService revocationService;
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@After
+	public void tearDown() {
+		revokedTokenRepository.deleteAll();
+		revocationService.rebuild();
+	}
+
+	@Test
+	public void revokedTokenIsRevokedAtOnce() {
+		assertTrue(revocationService.revoke("jti-1", inMillis(HOUR)));
+
+		assertTrue(revocationService.isRevoked("jti-1"));
+		assertFalse(revocationService.isRevoked("jti-2"));
+		assertFalse(revocationService.isRevoked(null));
+	}
+
+	@Test
+	public void secondRevocationOfTheSameTokenReportsReuse() {
+		assertTrue(revocationService.revoke("jti-1", inMillis(HOUR)));
+
+		assertFalse(revocationService.revoke("jti-1", inMillis(HOUR)));
+		assertTrue(revocationService.isRevoked("jti-1"));
+	}
+
+	@Test
+	public void rebuildPicksUpRevocationsFromOtherNodes() {
+		// Written to the shared table without going through this node's filter
+		revokedTokenRepository.insert("jti-elsewhere", inMillis(HOUR));
+		assertFalse(revocationService.isRevoked("jti-elsewhere"));
+
+		revocationService.rebuild();
+
+		assertTrue(revocationService.isRevoked("jti-elsewhere"));
+	}
+
+	@Test
+	public void rebuildKeepsActiveAndDropsExpiredRevocations() {
+		revocationService.revoke("jti-active", inMillis(HOUR));
+		revocationService.revoke("jti-expired", inMillis(-HOUR));
+
+		revocationService.rebuild();
+
+		assertTrue(revocationService.isRevoked("jti-active"));
+		assertFalse(revocationService.isRevoked("jti-expired"));
+		assertEquals(1, revokedTokenRepository.count());
+	}
+
+	private static Date inMillis(long millis) {
+		return new Date(System.currentTimeMillis() + millis);
+	}
+}
@@ -0,0 +1,152 @@
+package com.akm.blog.demo.serviceImpl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Only first pages are cached, a committed write drops the writer's pages,
+ * and a page loaded across an invalidation is never cached.
+ */
+public class BlogPageCacheTest {
+
+	private static final Long ALICE = 1L;
+
+	private static final Long BOB = 2L;
+
+	private BlogPageCache cache;
+
+	private AtomicInteger loads;
+
+	@Before
+	public void setUp() {
+		cache = new BlogPageCache();
+		cache.meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(cache, "blogPageCacheSize", 100);
+		ReflectionTestUtils.setField(cache, "blogPageCacheTtlSeconds", 60L);
+		cache.init();
+		loads = new AtomicInteger();
+	}
+
+	@After
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	public void firstPageIsLoadedOnce() {
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void laterPagesAreNeverCached() {
+		cache.getOrLoad(ALICE, PageRequest.of(1, 10), loader());
+		cache.getOrLoad(ALICE, PageRequest.of(1, 10), loader());
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void pageSizeAndSortAreSeparateEntries() {
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		cache.getOrLoad(ALICE, PageRequest.of(0, 20), loader());
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10, Sort.by("name")), loader());
+
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void invalidationDropsOnlyThatUsersPages() {
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		cache.getOrLoad(BOB, PageRequest.of(0, 10), loader());
+
+		cache.invalidate(ALICE);
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		cache.getOrLoad(BOB, PageRequest.of(0, 10), loader());
+
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void pageLoadedAcrossAnInvalidationIsNotCached() {
+		List<BlogSummaryDTO> stale = cache.getOrLoad(ALICE, PageRequest.of(0, 10), () -> {
+			// A write commits while this page is being read
+			cache.invalidate(ALICE);
+			return page();
+		});
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+
+		assertEquals(1, stale.size());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void invalidationWaitsForTheCommit() {
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.invalidateAfterCommit(ALICE);
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		assertEquals(1, loads.get());
+
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+			synchronization.afterCommit();
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void rolledBackWriteKeepsThePage() {
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.invalidateAfterCommit(ALICE);
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void invalidationOutsideATransactionIsImmediate() {
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+
+		cache.invalidateAfterCommit(ALICE);
+		cache.getOrLoad(ALICE, PageRequest.of(0, 10), loader());
+
+		assertEquals(2, loads.get());
+	}
+
+	private Supplier<List<BlogSummaryDTO>> loader() {
+		return () -> {
+			loads.incrementAndGet();
+			return page();
+		};
+	}
+
+	private static List<BlogSummaryDTO> page() {
+		return Collections.singletonList(new BlogSummaryDTO(1L, "Blog", "Description", Calendar.getInstance(), 0L));
+	}
+}
@@ -0,0 +1,146 @@
+package com.akm.blog.demo.serviceImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.common.InvalidCursorException;
+import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.model.User;
+import com.akm.blog.demo.search.BlogSearchIndex;
+import com.akm.blog.demo.security.services.UserPrinciple;
+import com.akm.blog.demo.service.BlogService;
+
+/*
+ * Walking next_cursor must visit every blog exactly once, in (createdAt
+ * desc, id desc) order, even when a page boundary falls between blogs
+ * created in the same instant.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({ BlogServiceImpl.class, JacksonAutoConfiguration.class })
+public class BlogServiceImplCursorTest {
+
+	private static final String MESSAGE = "message";
+
+	private static final String NEXT_CURSOR = "next_cursor";
+
+	@Autowired
+	private BlogService blogService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@MockBean
+	private BlogSearchIndex blogSearchIndex;
+
+	@MockBean
+	private BlogPageCache blogPageCache;
+
+	private List<Long> newestFirst;
+
+	@Before
+	public void setUp() {
+		User user = entityManager.persist(new User("cursor", "password", true, null, null));
+		signIn(user);
+
+		Long oldest = blog(user, "oldest", 1000L);
+		Long tiedLow = blog(user, "tied low", 2000L);
+		Long tiedMiddle = blog(user, "tied middle", 2000L);
+		Long tiedHigh = blog(user, "tied high", 2000L);
+		Long newest = blog(user, "newest", 3000L);
+		entityManager.clear();
+
+		newestFirst = Arrays.asList(newest, tiedHigh, tiedMiddle, tiedLow, oldest);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void pagesSplitBlogsCreatedInTheSameInstant() throws Exception {
+		assertEquals(newestFirst, walk(2));
+	}
+
+	@Test
+	public void singleBlogPagesVisitEveryBlogOnce() throws Exception {
+		assertEquals(newestFirst, walk(1));
+	}
+
+	@Test
+	public void lastPageHasNoCursor() throws Exception {
+		CommonResponse page = blogService.getBlogsByCursor(null, newestFirst.size());
+
+		assertEquals(newestFirst, ids(page));
+		assertNull(page.getResponseData(NEXT_CURSOR).get(NEXT_CURSOR));
+	}
+
+	@Test(expected = InvalidCursorException.class)
+	public void tamperedCursorIsRejected() throws Exception {
+		String cursor = (String) blogService.getBlogsByCursor(null, 2).getResponseData(NEXT_CURSOR).get(NEXT_CURSOR);
+		blogService.getBlogsByCursor(cursor + "*", 2);
+	}
+
+	private List<Long> walk(int size) throws Exception {
+		List<Long> visited = new ArrayList<>();
+		String cursor = null;
+		do {
+			CommonResponse page = blogService.getBlogsByCursor(cursor, size);
+			assertEquals(CommonConstants.SUCCESS, page.getStatusCode());
+			visited.addAll(ids(page));
+			cursor = (String) page.getResponseData(NEXT_CURSOR).get(NEXT_CURSOR);
+		} while (cursor != null);
+		return visited;
+	}
+
+	// createdAt is a @CreationTimestamp, so pin it with an update after the insert
+	private Long blog(User user, String name, long createdAtMillis) {
+		Blog blog = new Blog(null, name, name + " description", null);
+		blog.setUser(user);
+		Long id = entityManager.persistAndFlush(blog).getId();
+		Calendar createdAt = Calendar.getInstance();
+		createdAt.setTimeInMillis(createdAtMillis);
+		entityManager.getEntityManager().createQuery("update Blog b set b.createdAt = :createdAt where b.id = :id")
+				.setParameter("createdAt", createdAt).setParameter("id", id).executeUpdate();
+		return id;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Long> ids(CommonResponse page) {
+		List<Long> ids = new ArrayList<>();
+		for(BlogSummaryDTO blog : (List<BlogSummaryDTO>) page.getResponseData(MESSAGE).get(MESSAGE))
+			ids.add(blog.getId());
+		return ids;
+	}
+
+	private static void signIn(User user) {
+		UserPrinciple principal = new UserPrinciple(user.getId(), user.getUsername(), null, true,
+				Collections.emptyList());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
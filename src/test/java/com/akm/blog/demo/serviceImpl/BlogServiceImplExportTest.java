@@ -0,0 +1,133 @@
+package com.akm.blog.demo.serviceImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.akm.blog.demo.model.Blog;
+import com.akm.blog.demo.model.User;
+import com.akm.blog.demo.search.BlogSearchIndex;
+import com.akm.blog.demo.security.services.UserPrinciple;
+import com.akm.blog.demo.service.BlogService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * The export is NDJSON: one complete JSON object per line, for the
+ * caller's blogs only, in id order.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({ BlogServiceImpl.class, JacksonAutoConfiguration.class })
+// Integer.MIN_VALUE streaming is MySQL-only
+@TestPropertySource(properties = "grokonez.app.blogStreamFetchSize=100")
+public class BlogServiceImplExportTest {
+
+	@Autowired
+	private BlogService blogService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockBean
+	private BlogSearchIndex blogSearchIndex;
+
+	@MockBean
+	private BlogPageCache blogPageCache;
+
+	private User owner;
+
+	@Before
+	public void setUp() {
+		owner = entityManager.persist(new User("exporter", "password", true, null, null));
+		User other = entityManager.persist(new User("other", "password", true, null, null));
+		blog(other, "not mine", "description");
+		signIn(owner);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void writesOneObjectPerLineInIdOrder() throws Exception {
+		Long first = blog(owner, "first", "one");
+		Long second = blog(owner, "second", "two");
+
+		List<String> lines = export();
+
+		assertEquals(2, lines.size());
+		JsonNode line = objectMapper.readTree(lines.get(0));
+		assertEquals(first.longValue(), line.get("id").asLong());
+		assertEquals("first", line.get("name").asText());
+		assertEquals("one", line.get("description").asText());
+		assertEquals(0L, line.get("version").asLong());
+		assertTrue(line.get("created_at").isNumber());
+		assertEquals(second.longValue(), objectMapper.readTree(lines.get(1)).get("id").asLong());
+	}
+
+	@Test
+	public void lineBreaksInsideValuesStayEscaped() throws Exception {
+		blog(owner, "multi\nline", "line one\r\nline two");
+
+		List<String> lines = export();
+
+		assertEquals(1, lines.size());
+		assertEquals("line one\r\nline two", objectMapper.readTree(lines.get(0)).get("description").asText());
+	}
+
+	@Test
+	public void userWithoutBlogsGetsAnEmptyBody() throws Exception {
+		signIn(entityManager.persist(new User("empty", "password", true, null, null)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		blogService.exportBlogs(out);
+
+		assertEquals(0, out.size());
+	}
+
+	private List<String> export() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		blogService.exportBlogs(out);
+		String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(body.endsWith("\n"));
+		return Arrays.asList(body.substring(0, body.length() - 1).split("\n"));
+	}
+
+	private Long blog(User user, String name, String description) {
+		Blog blog = new Blog(null, name, description, null);
+		blog.setUser(user);
+		return entityManager.persistAndFlush(blog).getId();
+	}
+
+	private static void signIn(User user) {
+		UserPrinciple principal = new UserPrinciple(user.getId(), user.getUsername(), null, true,
+				Collections.emptyList());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
@@ -0,0 +1,196 @@
+package com.akm.blog.demo.serviceImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.DTO.BlogDTO;
+import com.akm.blog.demo.DTO.BlogSummaryDTO;
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.common.ETags;
+import com.akm.blog.demo.common.NotFoundException;
+import com.akm.blog.demo.common.PreconditionFailedException;
+import com.akm.blog.demo.model.User;
+import com.akm.blog.demo.repository.BlogRepository;
+import com.akm.blog.demo.repository.UserRepository;
+import com.akm.blog.demo.search.BlogSearchIndex;
+import com.akm.blog.demo.security.services.UserPrinciple;
+import com.akm.blog.demo.service.BlogService;
+
+/*
+ * createBlog must write a blog with a single INSERT in a single transaction:
+ * no user select, merge or update. editBlog must change it with a single
+ * owner- and version-scoped UPDATE, without loading it first; only an
+ * edit without If-Match reads the new version back. Listings
+ * are read as DTO projections, never as managed entities.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({ BlogServiceImpl.class, JacksonAutoConfiguration.class })
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BlogServiceImplStatementCountTest {
+
+	@Autowired
+	private BlogService blogService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	// Its startup rebuild would run queries of its own while statements are counted
+	@MockBean
+	private BlogSearchIndex blogSearchIndex;
+
+	@MockBean
+	private BlogPageCache blogPageCache;
+
+	private Statistics statistics;
+
+	private Long blogId;
+
+	@Before
+	public void setUp() throws Exception {
+		User user = new User("statements", "password", true, null, null);
+		signIn(userRepository.save(user));
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		// The first blog allocates a block of ids from blog_seq
+		blogService.createBlog(blog("warmup"));
+		blogId = blogRepository.findAll().get(0).getId();
+		statistics.clear();
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+		blogRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void createBlogIssuesExactlyOneInsert() throws Exception {
+		CommonResponse response = blogService.createBlog(blog("counted"));
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getEntityInsertCount());
+		assertEquals(0, statistics.getEntityUpdateCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(1, statistics.getTransactionCount());
+	}
+
+	@Test
+	public void failedCreateBlogAnswersFailAndCommitsNothing() throws Exception {
+		// The foreign key to this user fails on flush, inside createBlog's try block
+		User ghost = new User("ghost", "password", true, null, null);
+		ghost.setId(Long.MAX_VALUE);
+		signIn(ghost);
+
+		CommonResponse response = blogService.createBlog(blog("orphan"));
+
+		assertEquals(CommonConstants.FAIL, response.getStatusCode());
+		assertEquals(1, blogRepository.count());
+	}
+
+	@Test
+	public void editBlogIssuesExactlyOneUpdate() throws Exception {
+		CommonResponse response = blogService.editBlog(blog("edited"), blogId, 0L);
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		assertEquals(ETags.forVersion(1L), response.getEntityTag());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(1, statistics.getTransactionCount());
+		assertEquals(Long.valueOf(1L), blogRepository.findById(blogId).get().getVersion());
+	}
+
+	@Test
+	public void editBlogWithoutIfMatchReadsBackOnlyTheNewVersion() throws Exception {
+		blogService.editBlog(blog("first edit"), blogId, null);
+		statistics.clear();
+
+		CommonResponse response = blogService.editBlog(blog("edited"), blogId, null);
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		assertEquals(ETags.forVersion(2L), response.getEntityTag());
+		// The UPDATE plus a primary key read of the version column
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(1, statistics.getTransactionCount());
+		assertEquals(Long.valueOf(2L), blogRepository.findById(blogId).get().getVersion());
+	}
+
+	@Test
+	public void getBlogsReadsSummariesWithoutLoadingEntities() throws Exception {
+		when(blogPageCache.getOrLoad(any(), any(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+
+		CommonResponse response = blogService.getBlogs(PageRequest.of(0, 10));
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		List<?> blogs = (List<?>) response.getResponseData("message").get("message");
+		assertEquals(1, blogs.size());
+		assertTrue(blogs.get(0) instanceof BlogSummaryDTO);
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionLoadCount());
+	}
+
+	@Test(expected = PreconditionFailedException.class)
+	public void editBlogWithStaleIfMatchFails() throws Exception {
+		blogService.editBlog(blog("edited"), blogId, 5L);
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void editOfAnotherUsersBlogIsNotFound() throws Exception {
+		signIn(userRepository.save(new User("intruder", "password", true, null, null)));
+		blogService.editBlog(blog("edited"), blogId, 0L);
+	}
+
+	private static void signIn(User user) {
+		UserPrinciple principal = new UserPrinciple(user.getId(), user.getUsername(), null, true,
+				Collections.emptyList());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	private static BlogDTO blog(String name) {
+		BlogDTO blog = new BlogDTO();
+		blog.setName(name);
+		blog.setDescription(name + " description");
+		return blog;
+	}
+
+}
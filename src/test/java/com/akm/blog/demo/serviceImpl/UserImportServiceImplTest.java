@@ -0,0 +1,149 @@
+package com.akm.blog.demo.serviceImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.akm.blog.demo.common.CommonConstants;
+import com.akm.blog.demo.common.CommonResponse;
+import com.akm.blog.demo.model.Role;
+import com.akm.blog.demo.model.RoleName;
+import com.akm.blog.demo.repository.RoleRepository;
+import com.akm.blog.demo.security.BCryptCostCalibrator;
+import com.akm.blog.demo.security.PasswordHashingExecutor;
+import com.akm.blog.demo.security.PasswordHashingRejectedException;
+import com.akm.blog.demo.security.services.RoleCache;
+import com.akm.blog.demo.service.UserImportService;
+
+/*
+ * A full hashing queue must only ever cost the chunk that hit it: the
+ * chunk is retried with backoff, then reported row by row, and the rest
+ * of the upload is still imported.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({ UserImportServiceImpl.class, BCryptCostCalibrator.class })
+@TestPropertySource(properties = { "grokonez.app.bcrypt.cost=4", "grokonez.app.userImport.chunkSize=2",
+		"grokonez.app.userImport.hashingRetries=3", "grokonez.app.userImport.hashingBackoffMillis=1" })
+// Chunks commit in transactions of their own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserImportServiceImplTest {
+
+	private static final String CSV = "username,password\nalice,secret1\nbob,secret2\ncarol,secret3\ndave,secret4\n";
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockBean
+	private RoleCache roleCache;
+
+	@MockBean
+	private PasswordHashingExecutor passwordHashingExecutor;
+
+	@Before
+	public void setUp() throws Exception {
+		Role role = roleRepository.save(new Role(RoleName.ROLE_USER));
+		when(roleCache.getRole(RoleName.ROLE_USER)).thenReturn(role);
+	}
+
+	@After
+	public void tearDown() {
+		jdbcTemplate.update("delete from user_roles");
+		jdbcTemplate.update("delete from users");
+		roleRepository.deleteAll();
+	}
+
+	@Test
+	public void importsEveryRowWhenHashingKeepsUp() throws Exception {
+		when(passwordHashingExecutor.executeAll(anyList())).thenAnswer(runTasks());
+
+		CommonResponse response = importCsv();
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		assertEquals(4, data(response, "imported"));
+		assertEquals(4, userCount());
+	}
+
+	@Test
+	public void rejectedChunkIsRetried() throws Exception {
+		when(passwordHashingExecutor.executeAll(anyList()))
+				.thenThrow(new PasswordHashingRejectedException("Password hashing queue is full"))
+				.thenAnswer(runTasks());
+
+		CommonResponse response = importCsv();
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		assertEquals(4, data(response, "imported"));
+		verify(passwordHashingExecutor, times(3)).executeAll(anyList());
+	}
+
+	@Test
+	public void chunkStillRejectedAfterRetriesIsReportedAndTheRestIsImported() throws Exception {
+		PasswordHashingRejectedException rejected = new PasswordHashingRejectedException("Password hashing queue is full");
+		when(passwordHashingExecutor.executeAll(anyList()))
+				.thenThrow(rejected, rejected, rejected)
+				.thenAnswer(runTasks());
+
+		CommonResponse response = importCsv();
+
+		assertEquals(CommonConstants.SUCCESS, response.getStatusCode());
+		assertEquals(2, data(response, "imported"));
+		assertEquals(2, data(response, "failed"));
+		List<?> failures = (List<?>) response.getResponseData("failures").get("failures");
+		assertEquals("alice", ((Map<?, ?>) failures.get(0)).get("username"));
+		assertEquals("Password hashing is busy, retry later", ((Map<?, ?>) failures.get(0)).get("reason"));
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users where username = 'dave'", Integer.class)
+				.intValue());
+	}
+
+	private CommonResponse importCsv() throws Exception {
+		return userImportService.importUsers(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)), false);
+	}
+
+	private int userCount() {
+		return jdbcTemplate.queryForObject("select count(*) from users", Integer.class);
+	}
+
+	private static int data(CommonResponse response, String name) {
+		return (Integer) response.getResponseData(name).get(name);
+	}
+
+	private static Answer<List<String>> runTasks() {
+		return invocation -> {
+			List<String> results = new ArrayList<>();
+			for (Object task : invocation.<List<?>>getArgument(0))
+				results.add(((Callable<?>) task).call().toString());
+			return results;
+		};
+	}
+}